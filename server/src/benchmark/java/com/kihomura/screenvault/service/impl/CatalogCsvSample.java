@@ -0,0 +1,56 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Writes a synthetic catalog CSV with the same 10-column layout as metadata/movies.csv,
+ * including quoted descriptions with commas, escaped quotes and embedded line breaks.
+ * About one row in fifty carries an unknown genre or an invalid date, like the real dumps.
+ */
+final class CatalogCsvSample {
+
+    private static final String HEADER = "title,other_title,country,language,description,image,release_date,genre,category,source_type";
+
+    private CatalogCsvSample() {
+    }
+
+    static Path write(int rows) throws IOException {
+        Path file = Files.createTempFile("catalog-sample", ".csv");
+        file.toFile().deleteOnExit();
+        Random random = new Random(42);
+        Genre[] genres = Genre.values();
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.write('\n');
+            for (int i = 0; i < rows; i++) {
+                writer.write("Sample Title " + i);
+                writer.write(",\"Título, alternativo " + i + "\"");
+                writer.write(",US,en,");
+                writer.write("\"A \"\"synthetic\"\" plot, long enough to look like a real overview of the film. ");
+                if (random.nextInt(20) == 0) {
+                    writer.write("It even spans\nseveral lines. ");
+                }
+                writer.write("Row " + i + ".\"");
+                writer.write(",https://image.tmdb.org/t/p/w500/" + Integer.toHexString(random.nextInt()) + ".jpg,");
+                boolean bad = random.nextInt(50) == 0;
+                writer.write(bad ? "2019-13-40" : String.format("%04d-%02d-%02d",
+                        1950 + random.nextInt(75), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                writer.write(',');
+                writer.write(bad ? "Sci-Fi" : genres[random.nextInt(genres.length)].name());
+                writer.write(',');
+                writer.write(random.nextBoolean() ? Category.MOVIE.name() : Category.TV_SHOW.name());
+                writer.write(",OFFICIAL_DATA\n");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,109 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+import com.kihomura.screenvault.enums.SourceType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ContentRowMapper with the former parseContent, which built a DateTimeFormatter per row
+ * and resolved enums through valueOf with exception-driven fallbacks.
+ * Both read the sample through the same tokenizer, so the difference is the mapping alone.
+ * The former per-value warning logs are left out, which favours the old path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentRowMapperBenchmark {
+
+    @Param("200000")
+    private int rows;
+
+    private Path file;
+    private final ContentRowMapper mapper = new ContentRowMapper();
+
+    @Setup(Level.Trial)
+    public void writeSample() throws Exception {
+        file = CatalogCsvSample.write(rows);
+    }
+
+    @Benchmark
+    public void previousParseContent(Blackhole blackhole) throws Exception {
+        try (CsvRecordReader reader = CsvRecordReader.open(file, 0)) {
+            reader.skip(1);
+            while (reader.next()) {
+                CsvTokenizer row = reader.row();
+                String[] line = new String[ContentRowMapper.COLUMN_COUNT];
+                for (int i = 0; i < line.length; i++) {
+                    line[i] = row.field(i);
+                }
+                blackhole.consume(previousParseContent(line, Category.MOVIE));
+            }
+        }
+    }
+
+    @Benchmark
+    public void rowMapper(Blackhole blackhole) throws Exception {
+        ImportErrorCounters errors = new ImportErrorCounters();
+        try (CsvRecordReader reader = CsvRecordReader.open(file, 0)) {
+            reader.skip(1);
+            while (reader.next()) {
+                blackhole.consume(mapper.map(reader.row(), Category.MOVIE, errors));
+            }
+        }
+        blackhole.consume(errors);
+    }
+
+    /**
+     * The mapping logic of parseContent before the row mapper, minus its logging.
+     */
+    private static Content previousParseContent(String[] line, Category defaultCategory) {
+        Content content = new Content();
+        if (line[0] == null || line[0].isEmpty()) {
+            return null;
+        }
+        content.setTitle(line[0]);
+        content.setOtherTitle(line[1]);
+        content.setCountry(line[2]);
+        content.setLanguage(line[3]);
+        content.setDescription(line[4]);
+        content.setImage(line[5]);
+        if (line[6] != null && !line[6].isEmpty()) {
+            try {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+                content.setReleaseDate(LocalDate.parse(line[6], formatter));
+            } catch (DateTimeParseException e) {
+                // logged per row before
+            }
+        }
+        if (line[7] != null && !line[7].isEmpty()) {
+            try {
+                content.setGenre(Genre.valueOf(line[7]));
+            } catch (IllegalArgumentException e) {
+                // logged per row before
+            }
+        }
+        try {
+            content.setCategory(line[8] != null ? Category.valueOf(line[8]) : defaultCategory);
+        } catch (IllegalArgumentException e) {
+            content.setCategory(defaultCategory);
+        }
+        try {
+            content.setSourceType(line[9] != null ? SourceType.valueOf(line[9]) : SourceType.OFFICIAL_DATA);
+        } catch (IllegalArgumentException e) {
+            content.setSourceType(SourceType.OFFICIAL_DATA);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,74 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the former OpenCSV import path with the memory-mapped CsvTokenizer.
+ * Both read the whole sample file and consume the 10 columns parseContent keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvTokenizerBenchmark {
+
+    @Param("200000")
+    private int rows;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeSample() throws Exception {
+        file = CatalogCsvSample.write(rows);
+    }
+
+    @Benchmark
+    public void openCsv(Blackhole blackhole) throws Exception {
+        var parser = new CSVParserBuilder()
+                .withSeparator(',')
+                .withQuoteChar('"')
+                .withEscapeChar('\\')
+                .withStrictQuotes(false)
+                .withIgnoreLeadingWhiteSpace(true)
+                .withIgnoreQuotations(false)
+                .build();
+        try (CSVReader reader = new CSVReaderBuilder(new BufferedReader(
+                new InputStreamReader(new FileInputStream(file.toFile()), StandardCharsets.UTF_8)))
+                .withSkipLines(1)
+                .withCSVParser(parser)
+                .build()) {
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                for (int i = 0; i < 10; i++) {
+                    blackhole.consume(line[i]);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) throws Exception {
+        try (CsvRecordReader reader = CsvRecordReader.open(file, 0)) {
+            reader.skip(1);
+            while (reader.next()) {
+                CsvTokenizer row = reader.row();
+                for (int i = 0; i < 10; i++) {
+                    blackhole.consume(row.field(i));
+                }
+            }
+        }
+    }
+}
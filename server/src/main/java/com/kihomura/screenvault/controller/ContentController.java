@@ -1,13 +1,14 @@
 package com.kihomura.screenvault.controller;
 
 import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.FacetFilter;
+import com.kihomura.screenvault.entity.FacetPage;
 import com.kihomura.screenvault.entity.dto.ResponseMessage;
 import com.kihomura.screenvault.service.ContentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -19,6 +20,9 @@ import java.util.List;
 @RequestMapping("/content")
 public class ContentController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_TEXT_RESULTS = 100;
+
     @Autowired
     private final ContentService contentService;
 
@@ -31,14 +35,41 @@ public class ContentController {
         this.contentService = contentService;
     }
 
+    /**
+     * Searches official content and the current user's custom content by title, one page at a time.
+     * Performs title normalization by removing all characters but letters and digits and folding case and accents,
+     * then ranks exact matches first, then titles starting with the query, then titles containing it.
+     * 
+     * GET: /content/title?q={query}&cursor={cursor}&size={size}
+     * @param q the title to search for (will be normalized for fuzzy matching)
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @param size the page size, app.search.page-size by default and at most app.search.max-page-size
+     * @return ResponseMessage containing the page of content items and the cursor of the next page
+     */
+    @GetMapping("/title")
+    public ResponseMessage searchByTitle(@RequestParam String q,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
+        if (!StringUtils.hasText(q)) {
+            return ResponseMessage.error(400, "title can not be empty");
+        }
+        if (size != null && size < 1) {
+            return ResponseMessage.error(400, "size must be positive");
+        }
+        try {
+            return ResponseMessage.success(contentService.searchByTitle(q, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseMessage.error(400, e.getMessage());
+        }
+    }
+
     /**
      * Searches for content by title with fuzzy matching.
-     * Performs title normalization by removing non-letter characters and converting to lowercase.
-     * Also searches by title and creator combination for comprehensive results.
+     * Returns the first page of GET /content/title only; kept for clients that do not page yet.
      * 
      * GET: /content/title/{title}
      * @param title the title to search for (will be normalized for fuzzy matching)
-     * @return ResponseMessage containing JSON array of all matched content items
+     * @return ResponseMessage containing JSON array of the best matched content items
      */
     @GetMapping("/title/{title}")
     public ResponseMessage getContentByTitle(@PathVariable String title) {
@@ -47,17 +78,100 @@ public class ContentController {
             return ResponseMessage.error(400, "title can not be empty");
         }
 
-        List<Content> contents = new ArrayList<>();
-        contents.addAll(contentService.findByTitle(title));
-        contents.addAll(contentService.findByTitleAndCreator(title));
+        List<Content> contents = contentService.searchByTitle(title, null, null).getItems();
 
-        if (contents.isEmpty() || contents == null) {
+        if (contents.isEmpty()) {
             return ResponseMessage.error(400, "content not found");
         }
 
         return ResponseMessage.success(contents);
     }
 
+    /**
+     * Searches official content and the current user's custom content by words of the title, other title
+     * or description, e.g. plot keywords. Results are ranked by BM25 relevance, title words counting most.
+     * 
+     * GET: /content/search?q={query}&limit={limit}
+     * @param q the words to search for
+     * @param limit the maximum number of results, 20 by default and at most 100
+     * @return ResponseMessage containing the matched content items, most relevant first
+     */
+    @GetMapping("/search")
+    public ResponseMessage searchText(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        if (!StringUtils.hasText(q)) {
+            return ResponseMessage.error(400, "query can not be empty");
+        }
+        if (limit < 1 || limit > MAX_TEXT_RESULTS) {
+            return ResponseMessage.error(400, "limit must be between 1 and " + MAX_TEXT_RESULTS);
+        }
+        List<Content> contents = contentService.searchText(q, limit);
+        if (contents == null) {
+            return ResponseMessage.error(503, "full-text search is disabled or its index is being built");
+        }
+        return ResponseMessage.success(contents);
+    }
+
+    /**
+     * Browses the official catalog narrowed by genre, category, country, language and release year,
+     * one page at a time in id order. Repeat a parameter to accept any of several values of a facet.
+     * Besides the page, returns the total and for each facet the number of contents each of its values would match.
+     * 
+     * GET: /content/browse?genre={genre}&category={category}&country={code}&language={code}&yearFrom={year}&yearTo={year}&after={id}&size={size}
+     * @param genre Genre names, e.g. DRAMA
+     * @param category Category names, e.g. MOVIE
+     * @param country two-letter country codes
+     * @param language two-letter language codes
+     * @param yearFrom the first release year to include
+     * @param yearTo the last release year to include
+     * @param after the nextAfter of the previous page, omitted for the first page
+     * @param size the page size, app.search.page-size by default and at most app.search.max-page-size
+     * @return ResponseMessage containing the page of content items, the total and the facet counts
+     */
+    @GetMapping("/browse")
+    public ResponseMessage browse(@RequestParam(required = false) List<String> genre,
+                                  @RequestParam(required = false) List<String> category,
+                                  @RequestParam(required = false) List<String> country,
+                                  @RequestParam(required = false) List<String> language,
+                                  @RequestParam(required = false) Integer yearFrom,
+                                  @RequestParam(required = false) Integer yearTo,
+                                  @RequestParam(required = false) Integer after,
+                                  @RequestParam(required = false) Integer size) {
+        if (size != null && size < 1) {
+            return ResponseMessage.error(400, "size must be positive");
+        }
+        FacetFilter filter = FacetFilter.builder().genres(genre).categories(category)
+                .countries(country).languages(language).yearFrom(yearFrom).yearTo(yearTo).build();
+        try {
+            FacetPage page = contentService.browse(filter, after, size);
+            if (page == null) {
+                return ResponseMessage.error(503, "facet index is being built, try again shortly");
+            }
+            return ResponseMessage.success(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseMessage.error(400, e.getMessage());
+        }
+    }
+
+    /**
+     * Suggests official titles while the user types.
+     * Returns the most popular contents whose normalized title starts with the normalized query.
+     * 
+     * GET: /content/suggest?q={query}&limit={limit}
+     * @param q the letters typed so far
+     * @param limit the maximum number of suggestions, 10 by default and at most 50
+     * @return ResponseMessage containing the suggestions, most popular first
+     */
+    @GetMapping("/suggest")
+    public ResponseMessage suggest(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        if (!StringUtils.hasText(q)) {
+            return ResponseMessage.error(400, "query can not be empty");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            return ResponseMessage.error(400, "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return ResponseMessage.success(contentService.suggest(q, limit));
+    }
+
     /**
      * Retrieves a specific content item by its ID.
      * Returns detailed information about the requested content.
@@ -0,0 +1,154 @@
+package com.kihomura.screenvault.controller;
+
+import com.kihomura.screenvault.entity.dto.ResponseMessage;
+import com.kihomura.screenvault.service.impl.ImportJob;
+import com.kihomura.screenvault.service.impl.ImportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Controller for background catalog imports.
+ * Starts, pauses, resumes and cancels import jobs and reports their progress.
+ * Only the users listed in app.import.admins may use it.
+ */
+@RestController
+@RequestMapping("/import/jobs")
+public class ImportJobController {
+
+    private final ImportJobService importJobService;
+    private final Set<String> admins;
+
+    /**
+     * Constructor for ImportJobController.
+     *
+     * @param importJobService the service running import jobs
+     * @param admins comma-separated usernames allowed to manage imports
+     */
+    public ImportJobController(ImportJobService importJobService, @Value("${app.import.admins:}") String admins) {
+        this.importJobService = importJobService;
+        this.admins = Arrays.stream(admins.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Starts a new import job.
+     *
+     * POST: /import/jobs
+     * @param request the job type ("IMPORT_ALL" or "RESUME") and, for RESUME, the fileName
+     * @return ResponseMessage containing the queued job
+     */
+    @PostMapping
+    public ResponseMessage startJob(@RequestBody Map<String, String> request) {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        ImportJob.Type type;
+        try {
+            type = ImportJob.Type.valueOf(request.getOrDefault("type", "IMPORT_ALL"));
+        } catch (IllegalArgumentException e) {
+            return ResponseMessage.error(400, "Unknown job type");
+        }
+        try {
+            return ResponseMessage.success(importJobService.start(type, request.get("fileName")));
+        } catch (IllegalArgumentException e) {
+            return ResponseMessage.error(400, e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseMessage.error(429, e.getMessage());
+        }
+    }
+
+    /**
+     * Lists recent import jobs, newest first.
+     *
+     * GET: /import/jobs
+     * @return ResponseMessage containing the jobs
+     */
+    @GetMapping
+    public ResponseMessage getJobs() {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        return ResponseMessage.success(importJobService.findAll());
+    }
+
+    /**
+     * Reports state, rows/sec, ETA, failure count and last checkpoint of a job.
+     *
+     * GET: /import/jobs/{id}
+     * @param id the job ID
+     * @return ResponseMessage containing the job or error if not found
+     */
+    @GetMapping("/{id}")
+    public ResponseMessage getJob(@PathVariable long id) {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        return result(importJobService.find(id), "Import job not found");
+    }
+
+    /**
+     * Pauses a running job after its current chunk.
+     *
+     * POST: /import/jobs/{id}/pause
+     * @param id the job ID
+     * @return ResponseMessage containing the job or error if it is not active
+     */
+    @PostMapping("/{id}/pause")
+    public ResponseMessage pauseJob(@PathVariable long id) {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        return result(importJobService.pause(id), "No active import job with this ID");
+    }
+
+    /**
+     * Resumes a paused job.
+     *
+     * POST: /import/jobs/{id}/resume
+     * @param id the job ID
+     * @return ResponseMessage containing the job or error if it is not active
+     */
+    @PostMapping("/{id}/resume")
+    public ResponseMessage resumeJob(@PathVariable long id) {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        return result(importJobService.resume(id), "No active import job with this ID");
+    }
+
+    /**
+     * Cancels a job after its current chunk; a RESUME job can continue from its last checkpoint.
+     *
+     * POST: /import/jobs/{id}/cancel
+     * @param id the job ID
+     * @return ResponseMessage containing the job or error if it is not active
+     */
+    @PostMapping("/{id}/cancel")
+    public ResponseMessage cancelJob(@PathVariable long id) {
+        if (!isAdmin()) {
+            return ResponseMessage.error(403, "Not allowed to manage imports");
+        }
+        return result(importJobService.cancel(id), "No active import job with this ID");
+    }
+
+    private ResponseMessage result(ImportJob job, String notFound) {
+        if (job == null) {
+            return ResponseMessage.error(404, notFound);
+        }
+        return ResponseMessage.success(job);
+    }
+
+    private boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && admins.contains(authentication.getName());
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.kihomura.screenvault.enums.Category;
 import com.kihomura.screenvault.enums.Genre;
 import com.kihomura.screenvault.enums.SourceType;
@@ -24,6 +25,20 @@ public class Content {
     @TableField("other_title")
     private String otherTitle;
 
+    /**
+     * Lower-cased letters and digits of the title, indexed for search. See TitleNormalizer.
+     */
+    @JsonIgnore
+    @TableField("normalized_title")
+    private String normalizedTitle;
+
+    /**
+     * Lower-cased letters and digits of the other title, indexed for search.
+     */
+    @JsonIgnore
+    @TableField("normalized_other_title")
+    private String normalizedOtherTitle;
+
     @TableField("country")
     private String country;
 
@@ -50,4 +65,19 @@ public class Content {
 
     @TableField("creator_id")
     private Integer creatorId;
+
+    /**
+     * Natural key of imported catalog content, null for user-created content.
+     * Like the other derived columns it is never read from or written to request bodies.
+     */
+    @JsonIgnore
+    @TableField("fingerprint")
+    private String fingerprint;
+
+    /**
+     * Hash of the columns an import may change, used by the delta sync to skip unchanged rows.
+     */
+    @JsonIgnore
+    @TableField("row_hash")
+    private Long rowHash;
 }
@@ -0,0 +1,45 @@
+package com.kihomura.screenvault.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The facet values a catalog browse is narrowed to. Within a facet any of the values matches,
+ * across facets all of them must; a facet left null or empty is not filtered on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetFilter {
+
+    /**
+     * Genre constant names, e.g. DRAMA.
+     */
+    private List<String> genres;
+
+    /**
+     * Category constant names, e.g. MOVIE.
+     */
+    private List<String> categories;
+
+    /**
+     * Two-letter country codes as stored.
+     */
+    private List<String> countries;
+
+    /**
+     * Two-letter language codes as stored.
+     */
+    private List<String> languages;
+
+    /**
+     * First and last release year to include, both inclusive; either may be null.
+     */
+    private Integer yearFrom;
+    private Integer yearTo;
+}
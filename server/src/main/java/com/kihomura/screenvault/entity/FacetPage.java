@@ -0,0 +1,38 @@
+package com.kihomura.screenvault.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted catalog browse, by id, with the facet counts of the whole filtered catalog.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetPage {
+
+    private List<Content> items;
+
+    /**
+     * Number of official contents matching the filter.
+     */
+    private int total;
+
+    /**
+     * Id to pass as after for the next page, or null on the last page.
+     */
+    private Integer nextAfter;
+
+    /**
+     * Per facet (genre, category, country, language, year), the number of contents each value would match,
+     * given the filters of the other facets; most frequent first, years newest first. Values matching
+     * nothing are left out.
+     */
+    private Map<String, Map<String, Integer>> facets;
+}
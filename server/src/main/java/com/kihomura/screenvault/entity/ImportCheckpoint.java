@@ -0,0 +1,44 @@
+package com.kihomura.screenvault.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One committed chunk of a CSV import.
+ * Written in the same transaction as the chunk's rows, so the latest row
+ * for a file always points at data that is really in the database.
+ */
+@Data
+@TableName("import_checkpoints")
+public class ImportCheckpoint {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Integer id;
+
+    @TableField("file_name")
+    private String fileName;
+
+    @TableField("chunk_no")
+    private Integer chunkNo;
+
+    @TableField("start_line")
+    private Integer startLine;
+
+    @TableField("end_line")
+    private Integer endLine;
+
+    // Byte offset right after the chunk's last record, resuming seeks straight to it
+    @TableField("end_offset")
+    private Long endOffset;
+
+    @TableField("row_count")
+    private Integer rowCount;
+
+    @TableField("committed_at")
+    private LocalDateTime committedAt;
+}
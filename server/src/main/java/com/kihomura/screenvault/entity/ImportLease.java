@@ -0,0 +1,51 @@
+package com.kihomura.screenvault.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * One record-aligned byte range of a CSV file in a distributed import.
+ * A node owns the range while lease_until lies in the future; committed_offset is the range's checkpoint,
+ * advanced in the same transaction as the rows it covers.
+ */
+@Data
+@TableName("import_leases")
+public class ImportLease {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    private Integer id;
+
+    @TableField("file_name")
+    private String fileName;
+
+    // Ranges are only valid for the exact file they were cut from
+    @TableField("file_size")
+    private Long fileSize;
+
+    @TableField("range_no")
+    private Integer rangeNo;
+
+    @TableField("start_offset")
+    private Long startOffset;
+
+    @TableField("end_offset")
+    private Long endOffset;
+
+    @TableField("committed_offset")
+    private Long committedOffset;
+
+    // PENDING or DONE
+    @TableField("status")
+    private String status;
+
+    @TableField("owner")
+    private String owner;
+
+    @TableField("lease_until")
+    private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,29 @@
+package com.kihomura.screenvault.entity;
+
+import com.kihomura.screenvault.enums.Category;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A typeahead suggestion: an official content whose title starts with the typed letters.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    private Integer id;
+    private String title;
+    private Category category;
+    private LocalDate releaseDate;
+
+    /**
+     * Number of users that have the content in their records.
+     */
+    private Integer popularity;
+}
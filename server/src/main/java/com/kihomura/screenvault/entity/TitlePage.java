@@ -0,0 +1,30 @@
+package com.kihomura.screenvault.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a title search: exact matches first, then prefix matches, then other substring matches.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TitlePage {
+
+    private List<Content> items;
+
+    /**
+     * Opaque cursor of the next page, or null on the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * Whether nothing matched the query as typed and the items are titles within a few typos of it.
+     */
+    private boolean fuzzy;
+}
@@ -0,0 +1,78 @@
+package com.kihomura.screenvault.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * Statements of the catalog bootstrap: a LOAD DATA into an index-free staging table,
+ * followed by one INSERT ... SELECT into contents.
+ * foreign_key_checks belongs to the session: the statements from {@link #disableForeignKeyChecks}
+ * to {@link #enableForeignKeyChecks} must run on one connection.
+ */
+@Mapper
+public interface ContentBootstrapMapper {
+
+    @Select("SELECT COUNT(*) FROM contents WHERE source_type = 'OFFICIAL_DATA'")
+    long countOfficialContents();
+
+    @Update("DROP TABLE IF EXISTS contents_staging")
+    void dropStaging();
+
+    /**
+     * Same columns as contents, without keys, so the load only appends to the clustered index.
+     */
+    @Update("CREATE TABLE contents_staging (" +
+            "title varchar(500) NOT NULL, other_title varchar(500), country varchar(2), language varchar(2), " +
+            "description text, image varchar(500), release_date date, genre varchar(32), category varchar(16), " +
+            "source_type varchar(16), fingerprint char(32), row_hash bigint, " +
+            "normalized_title varchar(500), normalized_other_title varchar(500)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci")
+    void createStaging();
+
+    /**
+     * Loads a tab-separated file with MySQL's default escaping (\t, \n, \\ and \N for NULL).
+     * Needs local_infile=ON on the server and allowLoadLocalInfile=true on the JDBC URL.
+     *
+     * @return the number of loaded rows
+     */
+    @Update("LOAD DATA LOCAL INFILE #{path} INTO TABLE contents_staging CHARACTER SET utf8mb4 " +
+            "FIELDS TERMINATED BY '\\t' LINES TERMINATED BY '\\n' " +
+            "(title, other_title, country, language, description, image, release_date, genre, category, " +
+            "source_type, fingerprint, row_hash, normalized_title, normalized_other_title)")
+    int loadStaging(@Param("path") String path);
+
+    /**
+     * Drops every secondary index of contents, so the insert only appends to the clustered index.
+     * The creator key goes as well, since its index cannot be dropped while it exists.
+     */
+    @Update("ALTER TABLE contents DROP FOREIGN KEY fk_contents_user, " +
+            "DROP INDEX uk_contents_fingerprint, DROP INDEX idx_contents_creator, " +
+            "DROP INDEX idx_contents_normalized_title, DROP INDEX idx_contents_normalized_other_title")
+    void dropSecondaryIndexes();
+
+    /**
+     * With the checks off, the creator key is added in place along with the indexes, in one pass over the table;
+     * the bootstrap only inserts official rows, which have no creator.
+     */
+    @Update("SET foreign_key_checks = 0")
+    void disableForeignKeyChecks();
+
+    @Update("SET foreign_key_checks = 1")
+    void enableForeignKeyChecks();
+
+    @Update("ALTER TABLE contents ADD UNIQUE KEY uk_contents_fingerprint (fingerprint), " +
+            "ADD KEY idx_contents_creator (creator_id), " +
+            "ADD KEY idx_contents_normalized_title (normalized_title), " +
+            "ADD KEY idx_contents_normalized_other_title (normalized_other_title), " +
+            "ADD CONSTRAINT fk_contents_user FOREIGN KEY (creator_id) REFERENCES users (id)")
+    void addSecondaryIndexes();
+
+    @Update("INSERT INTO contents (title, other_title, country, language, description, image, release_date, " +
+            "genre, category, source_type, fingerprint, row_hash, normalized_title, normalized_other_title) " +
+            "SELECT title, other_title, country, language, description, image, release_date, " +
+            "genre, category, source_type, fingerprint, row_hash, normalized_title, normalized_other_title " +
+            "FROM contents_staging")
+    int insertFromStaging();
+}
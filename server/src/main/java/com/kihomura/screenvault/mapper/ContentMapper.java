@@ -2,7 +2,9 @@ package com.kihomura.screenvault.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.Suggestion;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 
@@ -10,24 +12,25 @@ import java.util.List;
 public interface ContentMapper extends BaseMapper<Content> {
 
     /**
-     * Search content by title using fuzzy matching with regex normalization.
-     * Removes non-letter characters and converts to lowercase for matching.
+     * One page of the official contents and the custom contents of a user whose normalized title or other title
+     * starts with the search term: exact matches (tier 0) before other prefix matches (tier 1), each by id,
+     * after the given (tier, id). Both columns are indexed, so MySQL reads two index ranges instead of scanning
+     * the table. Used while the in-memory title index is not built yet.
+     *
+     * @param title the search term, normalized with TitleNormalizer and not empty
+     * @param creatorId the user whose custom contents are included, or null for official contents only
      */
-    @Select("SELECT * FROM contents " +
-            "WHERE REGEXP_REPLACE(LOWER(title), '[^a-z]', '') LIKE CONCAT('%', #{title}, '%') " +
-            "OR REGEXP_REPLACE(LOWER(other_title), '[^a-z]', '') LIKE CONCAT('%', #{title}, '%')" +
-            "AND category = 'OFFICIAL_DATA'")
-    List<Content> findByTitle(String title);
-
-    /**
-     * Search custom content by title for specific user.
-     */
-    @Select("SELECT * FROM contents " +
-            "WHERE (REGEXP_REPLACE(LOWER(title), '[^a-z]', '') LIKE CONCAT('%', #{title}, '%') " +
-            "OR REGEXP_REPLACE(LOWER(other_title), '[^a-z]', '') LIKE CONCAT('%', #{title}, '%')) " +
-            "AND category = 'CUSTOM_DATA'" +
-            "AND (creator_id = #{currentUserId})")
-    List<Content> findByTitleAndCreator(@Param("title") String title, @Param("currentUserId") Integer currentUserId);
+    @Select("SELECT * FROM (" +
+            "SELECT c.*, CASE WHEN normalized_title = #{title} OR normalized_other_title = #{title} " +
+            "THEN 0 ELSE 1 END AS match_tier FROM contents c " +
+            "WHERE (normalized_title LIKE CONCAT(#{title}, '%') " +
+            "OR normalized_other_title LIKE CONCAT(#{title}, '%')) " +
+            "AND (source_type = 'OFFICIAL_DATA' OR (source_type = 'CUSTOM_DATA' AND creator_id = #{creatorId}))" +
+            ") m WHERE (match_tier, id) > (#{afterTier}, #{afterId}) " +
+            "ORDER BY match_tier, id LIMIT #{limit}")
+    List<Content> findTitlePage(@Param("title") String title, @Param("creatorId") Integer creatorId,
+                                @Param("afterTier") int afterTier, @Param("afterId") int afterId,
+                                @Param("limit") int limit);
 
     @Select("SELECT * FROM contents WHERE source_type = 'CUSTOM_DATA' AND creator_id = #{userId}")
     List<Content> findCustomContentByUserId(int userId);
@@ -35,11 +38,128 @@ public interface ContentMapper extends BaseMapper<Content> {
     @Update("UPDATE contents SET title = #{title}, other_title = #{otherTitle}, " +
             "country = #{country}, language = #{language}, description = #{description}, " +
             "image = #{image}, release_date = #{releaseDate}, genre = #{genre}, " +
-            "category = #{category}, source_type = #{sourceType} " +
+            "category = #{category}, source_type = #{sourceType}, " +
+            "normalized_title = #{normalizedTitle}, normalized_other_title = #{normalizedOtherTitle} " +
             "WHERE id = #{id} AND creator_id = #{creatorId}")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     boolean updateContent(Content content);
 
+    /**
+     * Inserts many contents with a single multi-row INSERT ... VALUES (...),(...) statement,
+     * updating the existing row instead when the fingerprint is already present.
+     * Rows whose values did not change are left untouched by MySQL.
+     * Callers keep the list small enough to stay under max_allowed_packet.
+     *
+     * @param table contents, or a table created LIKE contents; never user input
+     */
+    @Insert("<script>" +
+            "INSERT INTO ${table} (title, other_title, country, language, description, image, " +
+            "release_date, genre, category, source_type, creator_id, fingerprint, row_hash, " +
+            "normalized_title, normalized_other_title) VALUES " +
+            "<foreach collection='contents' item='c' separator=','>" +
+            "(#{c.title}, #{c.otherTitle}, #{c.country}, #{c.language}, #{c.description}, #{c.image}, " +
+            "#{c.releaseDate}, #{c.genre}, #{c.category}, #{c.sourceType}, #{c.creatorId}, #{c.fingerprint}, #{c.rowHash}, " +
+            "#{c.normalizedTitle}, #{c.normalizedOtherTitle})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE other_title = VALUES(other_title), country = VALUES(country), " +
+            "language = VALUES(language), description = VALUES(description), image = VALUES(image), " +
+            "genre = VALUES(genre), source_type = VALUES(source_type), row_hash = VALUES(row_hash), " +
+            "normalized_title = VALUES(normalized_title), normalized_other_title = VALUES(normalized_other_title)" +
+            "</script>")
+    int upsertBatch(@Param("table") String table, @Param("contents") List<Content> contents);
+
+    /**
+     * Returns fingerprint and row hash of the stored contents among the given fingerprints.
+     */
+    @Select("<script>" +
+            "SELECT fingerprint, row_hash FROM contents WHERE fingerprint IN " +
+            "<foreach collection='fingerprints' item='f' open='(' separator=',' close=')'>#{f}</foreach>" +
+            "</script>")
+    List<Content> findRowHashes(@Param("fingerprints") List<String> fingerprints);
+
+    /**
+     * Streams id and fingerprint of all imported official contents.
+     * The fetch size makes MySQL Connector/J stream the rows instead of buffering the result.
+     */
+    @Select("SELECT id, fingerprint FROM contents WHERE source_type = 'OFFICIAL_DATA' AND fingerprint IS NOT NULL")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Content> streamOfficialFingerprints();
+
+    /**
+     * Streams the catalog columns of all official contents row by row, for a snapshot export.
+     */
+    @Select("SELECT title, other_title, country, language, description, image, release_date, genre, category, " +
+            "source_type FROM contents WHERE source_type = 'OFFICIAL_DATA' ORDER BY id")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Content> streamOfficialContents();
+
+    /**
+     * Returns id, titles and normalized titles of up to limit contents after the given id, in id order.
+     */
+    @Select("SELECT id, title, other_title, normalized_title, normalized_other_title FROM contents " +
+            "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<Content> findTitlesAfter(@Param("afterId") int afterId, @Param("limit") int limit);
+
+    /**
+     * Stores the normalized titles of the given contents with one statement.
+     * Rows whose titles changed in the meantime are left alone; the edit normalized them already.
+     */
+    @Update("<script>" +
+            "UPDATE contents c JOIN (" +
+            "<foreach collection='contents' item='n' separator=' UNION ALL '>" +
+            "SELECT #{n.id} AS id, #{n.title} AS title, #{n.otherTitle} AS other_title, " +
+            "#{n.normalizedTitle} AS normalized_title, #{n.normalizedOtherTitle} AS normalized_other_title" +
+            "</foreach>" +
+            ") n ON n.id = c.id AND n.title = c.title AND n.other_title &lt;=&gt; c.other_title " +
+            "SET c.normalized_title = n.normalized_title, c.normalized_other_title = n.normalized_other_title" +
+            "</script>")
+    int updateNormalizedTitles(@Param("contents") List<Content> contents);
+
+    /**
+     * Streams the columns of all contents the title search index needs, row by row.
+     */
+    @Select("SELECT id, title, other_title, source_type, creator_id FROM contents ORDER BY id")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Content> streamSearchTitles();
+
+    /**
+     * Streams the columns of all contents the full-text index needs, row by row.
+     */
+    @Select("SELECT id, title, other_title, description, source_type, creator_id FROM contents ORDER BY id")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Content> streamSearchTexts();
+
+    /**
+     * Streams the facet columns of all official contents in id order, for the facet index.
+     */
+    @Select("SELECT id, genre, category, country, language, release_date FROM contents " +
+            "WHERE source_type = 'OFFICIAL_DATA' ORDER BY id")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Content> streamFacets();
+
+    /**
+     * Streams all official contents as suggestions, with the number of users that have each in their records.
+     */
+    @Select("SELECT c.id, c.title, c.category, c.release_date, IFNULL(p.popularity, 0) AS popularity " +
+            "FROM contents c LEFT JOIN (" +
+            "SELECT content_id, COUNT(*) AS popularity FROM user_content GROUP BY content_id" +
+            ") p ON p.content_id = c.id " +
+            "WHERE c.source_type = 'OFFICIAL_DATA'")
+    @Options(fetchSize = Integer.MIN_VALUE)
+    Cursor<Suggestion> streamSuggestions();
+
+    /**
+     * Deletes the given contents unless a user has them in a list, a tag or their own records.
+     */
+    @Delete("<script>" +
+            "DELETE FROM contents WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " AND NOT EXISTS (SELECT 1 FROM user_content uc WHERE uc.content_id = contents.id)" +
+            " AND NOT EXISTS (SELECT 1 FROM list_content lc WHERE lc.content_id = contents.id)" +
+            " AND NOT EXISTS (SELECT 1 FROM tag_content tc WHERE tc.content_id = contents.id)" +
+            "</script>")
+    int deleteUnreferenced(@Param("ids") List<Integer> ids);
+
     @Delete("DELETE FROM contents WHERE id = #{contentId} AND creator_id = #{creatorId}")
     @Options(useGeneratedKeys = true, keyProperty = "id")
     boolean deleteByIdAndCreator(@Param("contentId") int contentId, @Param("creatorId") Integer creatorId);
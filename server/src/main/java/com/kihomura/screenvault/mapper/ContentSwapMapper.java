@@ -0,0 +1,118 @@
+package com.kihomura.screenvault.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * Statements of the staging import: contents_staging is built next to the live table and
+ * swapped in with one atomic RENAME TABLE.
+ * InnoDB moves foreign keys along with a renamed parent table, so the child tables' keys
+ * are dropped before the swap and created again against the new contents table.
+ * Table locks and foreign_key_checks belong to the session: the statements from {@link #dropUserContentForeignKey}
+ * to {@link #enableForeignKeyChecks} must run on one connection.
+ */
+@Mapper
+public interface ContentSwapMapper {
+
+    @Update("DROP TABLE IF EXISTS contents_staging")
+    void dropStaging();
+
+    /**
+     * Copies columns and indexes of contents; foreign keys are not copied by CREATE TABLE ... LIKE.
+     */
+    @Update("CREATE TABLE contents_staging LIKE contents")
+    void createStaging();
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM contents")
+    long findMaxContentId();
+
+    /**
+     * Copies the live rows of one id range with their ids, so user records keep pointing at the same contents.
+     * INSERT ... SELECT share-locks the rows it reads under REPEATABLE READ, so the copy goes range by range
+     * and users' edits only ever wait for one short statement.
+     */
+    @Update("INSERT INTO contents_staging SELECT * FROM contents WHERE id > #{afterId} AND id <= #{toId}")
+    int copyLiveContents(@Param("afterId") long afterId, @Param("toId") long toId);
+
+    /**
+     * Moves the staging id counter past ids that users may still create in the live table meanwhile.
+     */
+    @Update("ALTER TABLE contents_staging AUTO_INCREMENT = ${nextId}")
+    void setStagingAutoIncrement(@Param("nextId") long nextId);
+
+    /**
+     * Keeps users from changing contents between the last custom-row sync and the swap.
+     * Statements under the lock must name the tables without aliases.
+     */
+    @Update("LOCK TABLES contents WRITE, contents_staging WRITE")
+    void lockForSwap();
+
+    @Update("UNLOCK TABLES")
+    void unlockTables();
+
+    /**
+     * Brings custom rows created or edited during the import over to staging.
+     */
+    @Update("REPLACE INTO contents_staging SELECT * FROM contents WHERE source_type = 'CUSTOM_DATA'")
+    int refreshCustomContents();
+
+    /**
+     * Drops custom rows from staging that were deleted from the live table during the import.
+     */
+    @Update("DELETE FROM contents_staging WHERE source_type = 'CUSTOM_DATA' " +
+            "AND id NOT IN (SELECT id FROM contents)")
+    int removeDeletedCustomContents();
+
+    @Update("ALTER TABLE user_content DROP FOREIGN KEY fk_uc_content")
+    void dropUserContentForeignKey();
+
+    @Update("ALTER TABLE list_content DROP FOREIGN KEY fk_lc_content")
+    void dropListContentForeignKey();
+
+    @Update("ALTER TABLE tag_content DROP FOREIGN KEY fk_tc_content")
+    void dropTagContentForeignKey();
+
+    @Update("RENAME TABLE contents TO contents_old, contents_staging TO contents")
+    void swap();
+
+    /**
+     * Removes child rows of contents deleted while the keys were dropped, which ON DELETE CASCADE or the key
+     * itself would have kept out.
+     */
+    @Update("DELETE uc FROM user_content uc LEFT JOIN contents c ON c.id = uc.content_id WHERE c.id IS NULL")
+    int removeOrphanUserContents();
+
+    @Update("DELETE lc FROM list_content lc LEFT JOIN contents c ON c.id = lc.content_id WHERE c.id IS NULL")
+    int removeOrphanListContents();
+
+    @Update("DELETE tc FROM tag_content tc LEFT JOIN contents c ON c.id = tc.content_id WHERE c.id IS NULL")
+    int removeOrphanTagContents();
+
+    /**
+     * With the checks off, the keys below are added in place, without copying or blocking the child tables;
+     * the orphan cleanup above has made sure they hold.
+     */
+    @Update("SET foreign_key_checks = 0")
+    void disableForeignKeyChecks();
+
+    @Update("SET foreign_key_checks = 1")
+    void enableForeignKeyChecks();
+
+    @Update("ALTER TABLE user_content ADD CONSTRAINT fk_uc_content " +
+            "FOREIGN KEY (content_id) REFERENCES contents (id) ON DELETE CASCADE")
+    void addUserContentForeignKey();
+
+    @Update("ALTER TABLE list_content ADD CONSTRAINT fk_lc_content FOREIGN KEY (content_id) REFERENCES contents (id)")
+    void addListContentForeignKey();
+
+    @Update("ALTER TABLE tag_content ADD CONSTRAINT fk_tc_content FOREIGN KEY (content_id) REFERENCES contents (id)")
+    void addTagContentForeignKey();
+
+    @Update("DROP TABLE IF EXISTS contents_old")
+    void dropOld();
+
+    @Update("ALTER TABLE contents ADD CONSTRAINT fk_contents_user FOREIGN KEY (creator_id) REFERENCES users (id)")
+    void addCreatorForeignKey();
+}
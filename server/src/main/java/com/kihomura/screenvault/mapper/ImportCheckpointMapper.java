@@ -0,0 +1,17 @@
+package com.kihomura.screenvault.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.kihomura.screenvault.entity.ImportCheckpoint;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+@Mapper
+public interface ImportCheckpointMapper extends BaseMapper<ImportCheckpoint> {
+
+    /**
+     * Latest committed chunk of a file, or null if nothing was committed yet.
+     */
+    @Select("SELECT * FROM import_checkpoints WHERE file_name = #{fileName} ORDER BY id DESC LIMIT 1")
+    ImportCheckpoint findLatestByFileName(@Param("fileName") String fileName);
+}
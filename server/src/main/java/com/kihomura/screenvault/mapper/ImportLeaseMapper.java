@@ -0,0 +1,58 @@
+package com.kihomura.screenvault.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.kihomura.screenvault.entity.ImportLease;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * Lease rows of distributed imports. All lease times use the database clock,
+ * so nodes with skewed clocks still agree on when a lease expires.
+ */
+@Mapper
+public interface ImportLeaseMapper extends BaseMapper<ImportLease> {
+
+    @Select("SELECT COUNT(*) FROM import_leases WHERE file_name = #{fileName} AND file_size = #{fileSize}")
+    int countRanges(@Param("fileName") String fileName, @Param("fileSize") long fileSize);
+
+    /**
+     * Inserts the ranges of a file; nodes planning the same file concurrently insert identical rows.
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO import_leases (file_name, file_size, range_no, start_offset, end_offset, committed_offset) VALUES " +
+            "<foreach collection='leases' item='l' separator=','>" +
+            "(#{l.fileName}, #{l.fileSize}, #{l.rangeNo}, #{l.startOffset}, #{l.endOffset}, #{l.committedOffset})" +
+            "</foreach>" +
+            "</script>")
+    int insertRanges(@Param("leases") List<ImportLease> leases);
+
+    /**
+     * First unfinished range that nobody holds, or whose lease has expired.
+     */
+    @Select("SELECT * FROM import_leases WHERE file_name = #{fileName} AND file_size = #{fileSize} " +
+            "AND status = 'PENDING' AND (lease_until IS NULL OR lease_until < NOW(6)) " +
+            "ORDER BY range_no LIMIT 1")
+    ImportLease findClaimable(@Param("fileName") String fileName, @Param("fileSize") long fileSize);
+
+    /**
+     * Claims a range if it is still claimable; exactly one of several competing nodes gets 1 back.
+     */
+    @Update("UPDATE import_leases SET owner = #{owner}, lease_until = NOW(6) + INTERVAL #{leaseSeconds} SECOND " +
+            "WHERE id = #{id} AND status = 'PENDING' AND (lease_until IS NULL OR lease_until < NOW(6))")
+    int claim(@Param("id") int id, @Param("owner") String owner, @Param("leaseSeconds") int leaseSeconds);
+
+    /**
+     * Moves the range checkpoint and renews the lease, as long as this node still owns the range.
+     */
+    @Update("UPDATE import_leases SET committed_offset = #{committedOffset}, " +
+            "lease_until = NOW(6) + INTERVAL #{leaseSeconds} SECOND, " +
+            "status = IF(#{done}, 'DONE', 'PENDING') " +
+            "WHERE id = #{id} AND owner = #{owner}")
+    int advance(@Param("id") int id, @Param("owner") String owner, @Param("committedOffset") long committedOffset,
+                @Param("leaseSeconds") int leaseSeconds, @Param("done") boolean done);
+
+    @Select("SELECT COUNT(*) FROM import_leases WHERE file_name = #{fileName} AND file_size = #{fileSize} " +
+            "AND status = 'PENDING'")
+    int countPending(@Param("fileName") String fileName, @Param("fileSize") long fileSize);
+}
@@ -1,7 +1,13 @@
 package com.kihomura.screenvault.runner;
 
 import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.service.impl.CatalogBootstrapService;
+import com.kihomura.screenvault.service.impl.CatalogSnapshotService;
+import com.kihomura.screenvault.service.impl.CatalogSwapService;
+import com.kihomura.screenvault.service.impl.CatalogSyncService;
 import com.kihomura.screenvault.service.impl.CsvImportService;
+import com.kihomura.screenvault.service.impl.DistributedImportService;
+import com.kihomura.screenvault.service.impl.TitleBackfillService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,12 +15,31 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+
 /**
  * Automatically imports CSV data when the application starts
  * Arguments:
  * - Full import: --spring.profiles.active=csv-import
+ * - Resume from the last checkpoint: --spring.profiles.active=csv-import --resume-file=movies.csv
  * - Resume from a specific line: --spring.profiles.active=csv-import --resume-file=movies.csv --start-line=458087
  * - Import the fixed file: --spring.profiles.active=csv-import --file=movies.csv.fixed
+ * - Import a JSON-lines dump: --spring.profiles.active=csv-import --file=movies.jsonl
+ * - Parallel reader/parser/writer pipeline for any of the above: --app.import.parallel=true
+ * - Delta sync of both files, writing only new, changed and removed titles: --spring.profiles.active=csv-import --sync
+ * - Bootstrap an empty catalog with LOAD DATA LOCAL INFILE: --spring.profiles.active=csv-import --bootstrap
+ *   (needs local_infile=ON on the server and allowLoadLocalInfile=true in DB_URL)
+ * - Full import into a staging table that is swapped in at the end: --spring.profiles.active=csv-import --swap
+ * - Distributed import, shared by every node started with it: --spring.profiles.active=csv-import --distributed
+ * - Export the official catalog to a binary snapshot: --spring.profiles.active=csv-import --export-snapshot=metadata/catalog.snap
+ * - Seed an empty catalog from a snapshot (same requirements as --bootstrap):
+ *   --spring.profiles.active=csv-import --snapshot=metadata/catalog.snap
+ * - Import the fixed rows of a file's dead-letter file, metadata/rejected/movies.csv:
+ *   --spring.profiles.active=csv-import --replay=movies.csv
+ * - Fill or recompute the normalized title columns, for contents stored before they existed
+ *   or after the title normalization changed:
+ *   --spring.profiles.active=csv-import --backfill-titles
  */
 @Component
 @Profile("csv-import")
@@ -25,12 +50,38 @@ public class CsvImportRunner implements CommandLineRunner {
     @Autowired
     private CsvImportService csvImportService;
 
+    @Autowired
+    private CatalogSyncService catalogSyncService;
+
+    @Autowired
+    private CatalogBootstrapService catalogBootstrapService;
+
+    @Autowired
+    private CatalogSwapService catalogSwapService;
+
+    @Autowired
+    private DistributedImportService distributedImportService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private TitleBackfillService titleBackfillService;
+
     @Override
     public void run(String... args) {
         String resumeFile = null;
-        int startLine = 1;
+        Integer startLine = null;
         String specificFile = null;
         boolean fixMode = false;
+        boolean syncMode = false;
+        boolean bootstrapMode = false;
+        boolean swapMode = false;
+        boolean distributedMode = false;
+        String replayFile = null;
+        String exportSnapshot = null;
+        String loadSnapshot = null;
+        boolean backfillTitles = false;
 
         for (String arg : args) {
             if (arg.startsWith("--resume-file=")) {
@@ -45,6 +96,22 @@ public class CsvImportRunner implements CommandLineRunner {
                 specificFile = arg.substring("--file=".length());
             } else if (arg.equals("--fix-mode")) {
                 fixMode = true;
+            } else if (arg.equals("--sync")) {
+                syncMode = true;
+            } else if (arg.equals("--bootstrap")) {
+                bootstrapMode = true;
+            } else if (arg.equals("--swap")) {
+                swapMode = true;
+            } else if (arg.equals("--distributed")) {
+                distributedMode = true;
+            } else if (arg.startsWith("--replay=")) {
+                replayFile = arg.substring("--replay=".length());
+            } else if (arg.startsWith("--export-snapshot=")) {
+                exportSnapshot = arg.substring("--export-snapshot=".length());
+            } else if (arg.startsWith("--snapshot=")) {
+                loadSnapshot = arg.substring("--snapshot=".length());
+            } else if (arg.equals("--backfill-titles")) {
+                backfillTitles = true;
             }
         }
 
@@ -54,9 +121,49 @@ public class CsvImportRunner implements CommandLineRunner {
             logger.info("Start CSV file repair mode");
             csvImportService.fixCsvQuotes("movies.csv");
             csvImportService.fixCsvQuotes("tv_shows.csv");
+        } else if (backfillTitles) {
+            // normalize the titles of existing rows for search
+            logger.info("Start filling the normalized title columns");
+            titleBackfillService.backfill();
+        } else if (exportSnapshot != null) {
+            // write the catalog to a snapshot file
+            logger.info("Export the catalog to snapshot {}", exportSnapshot);
+            try {
+                catalogSnapshotService.export(Paths.get(exportSnapshot));
+            } catch (IOException e) {
+                logger.error("Error exporting the catalog snapshot: {}", e.getMessage(), e);
+            }
+        } else if (loadSnapshot != null) {
+            // seed an empty catalog from a snapshot file
+            catalogSnapshotService.load(Paths.get(loadSnapshot));
+        } else if (bootstrapMode) {
+            // bulk load of an empty catalog
+            logger.info("Start bootstrapping the catalog with LOAD DATA LOCAL INFILE");
+            catalogBootstrapService.bootstrap();
+        } else if (distributedMode) {
+            // cooperate with other nodes through lease rows
+            logger.info("Start the distributed import of all CSV data");
+            distributedImportService.importAllData();
+        } else if (swapMode) {
+            // import next to the live table, then swap
+            logger.info("Start importing all CSV data into the staging table");
+            catalogSwapService.importAndSwap();
+        } else if (replayFile != null) {
+            // import the rows rejected by an earlier run
+            logger.info("Replay the rejected rows of file {}", replayFile);
+            Category category = replayFile.contains("movie") ? Category.MOVIE : Category.TV_SHOW;
+            csvImportService.replayRejected(replayFile, category);
+        } else if (syncMode) {
+            // delta sync
+            logger.info("Start syncing the catalog with the CSV files");
+            catalogSyncService.syncAllData();
+        } else if (resumeFile != null && startLine == null) {
+            // resume from the last committed checkpoint
+            logger.info("Resume import of file {} from its last checkpoint", resumeFile);
+            csvImportService.resumeImport(resumeFile);
         } else if (resumeFile != null) {
             // resume mode
-            logger.info("Resume import from line {} of file {}", resumeFile, startLine);
+            logger.info("Resume import from line {} of file {}", startLine, resumeFile);
             csvImportService.resumeImportFromLine(resumeFile, startLine);
         } else if (specificFile != null) {
             // import specific file
@@ -0,0 +1,114 @@
+package com.kihomura.screenvault.runner;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+import com.kihomura.screenvault.enums.SourceType;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import com.kihomura.screenvault.service.impl.ContentFingerprint;
+import com.kihomura.screenvault.service.impl.CsvImportService;
+import com.kihomura.screenvault.service.impl.TitleNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Compares the throughput of the row-by-row insert loop with the multi-row bulk upsert.
+ * Every round runs inside a transaction that is rolled back, so no data is left behind.
+ * Arguments:
+ * - Run: --spring.profiles.active=insert-benchmark
+ * - Rows per round: --rows=20000 (default 20000)
+ * - Rounds per strategy: --rounds=3 (default 3)
+ */
+@Component
+@Profile("insert-benchmark")
+public class InsertBenchmarkRunner implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsertBenchmarkRunner.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(String... args) {
+        int rows = 20000;
+        int rounds = 3;
+
+        for (String arg : args) {
+            try {
+                if (arg.startsWith("--rows=")) {
+                    rows = Integer.parseInt(arg.substring("--rows=".length()));
+                } else if (arg.startsWith("--rounds=")) {
+                    rounds = Integer.parseInt(arg.substring("--rounds=".length()));
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid benchmark argument: {}", arg);
+            }
+        }
+
+        List<Content> contents = sampleContents(rows);
+
+        // warm up both paths so the first measured round does not pay for class loading and statement parsing
+        measure("warm-up", contents.subList(0, Math.min(1000, rows)), batch -> batch.forEach(contentMapper::insert));
+        measure("warm-up", contents.subList(0, Math.min(1000, rows)), csvImportService::upsertBatch);
+
+        for (int i = 1; i <= rounds; i++) {
+            measure("single-row insert loop, round " + i, contents, batch -> batch.forEach(contentMapper::insert));
+            measure("multi-row bulk upsert, round " + i, contents, csvImportService::upsertBatch);
+        }
+    }
+
+    /**
+     * Runs one strategy inside a rolled-back transaction and logs its rows/sec.
+     */
+    private void measure(String label, List<Content> contents, Consumer<List<Content>> strategy) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            strategy.accept(contents);
+            status.setRollbackOnly();
+        });
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        logger.info("{}: {} rows in {} s, {} rows/sec",
+                label, contents.size(), String.format("%.3f", seconds), String.format("%.0f", contents.size() / seconds));
+    }
+
+    /**
+     * Builds synthetic content rows shaped like the catalog CSV.
+     */
+    private List<Content> sampleContents(int rows) {
+        Genre[] genres = Genre.values();
+        List<Content> contents = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Content content = new Content();
+            content.setTitle("Benchmark Title " + i);
+            content.setOtherTitle("Benchmark Other Title " + i);
+            content.setCountry("US");
+            content.setLanguage("en");
+            content.setDescription("A synthetic description used to give the row a realistic width for benchmarking. #" + i);
+            content.setImage("https://image.example.com/poster/" + i + ".jpg");
+            content.setReleaseDate(LocalDate.of(1950 + i % 75, 1 + i % 12, 1 + i % 28));
+            content.setGenre(genres[i % genres.length]);
+            content.setCategory(i % 2 == 0 ? Category.MOVIE : Category.TV_SHOW);
+            content.setSourceType(SourceType.OFFICIAL_DATA);
+            content.setFingerprint(ContentFingerprint.of(content));
+            TitleNormalizer.apply(content);
+            contents.add(content);
+        }
+        return contents;
+    }
+}
@@ -2,13 +2,19 @@ package com.kihomura.screenvault.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.FacetFilter;
+import com.kihomura.screenvault.entity.FacetPage;
+import com.kihomura.screenvault.entity.Suggestion;
+import com.kihomura.screenvault.entity.TitlePage;
 
 import java.util.List;
 
 public interface ContentService extends IService<Content> {
-    List<Content> findByTitle(String title);
-    List<Content> findByTitleAndCreator(String title);
+    TitlePage searchByTitle(String title, String cursor, Integer size);
+    List<Content> searchText(String query, int limit);
+    FacetPage browse(FacetFilter filter, Integer after, Integer size);
     List<Content> findCustomContent();
     boolean saveOrUpdateContent(Content content);
     boolean delete(int contentId);
+    List<Suggestion> suggest(String query, int limit);
 }
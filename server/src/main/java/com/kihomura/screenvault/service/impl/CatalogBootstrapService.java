@@ -0,0 +1,218 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.mapper.ContentBootstrapMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Fast initial load of an empty catalog.
+ * Both CSV files are normalized with the import's row rules into one TSV file, which MySQL reads
+ * with LOAD DATA LOCAL INFILE into an index-free staging table. A single INSERT ... SELECT then moves
+ * the rows into contents while its secondary indexes are dropped; they are rebuilt together at the end.
+ * Duplicate fingerprints keep their first row, because the unique index could not be rebuilt otherwise.
+ * Catalog snapshots are loaded through the same path, see CatalogSnapshotService.
+ */
+@Service
+public class CatalogBootstrapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogBootstrapService.class);
+    private static final int EXPECTED_ROWS = 1_500_000;
+
+    @Autowired
+    private ContentBootstrapMapper bootstrapMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ContentRowMapper rowMapper = new ContentRowMapper();
+
+    /**
+     * Writes the rows to load as TSV, in the layout of {@link #writeRow}.
+     */
+    @FunctionalInterface
+    interface TsvSource {
+
+        /**
+         * @return the number of rows written
+         */
+        int write(Writer out) throws IOException;
+    }
+
+    /**
+     * Loads both catalog files into an empty contents table.
+     * Refuses to run if official contents exist already; use the import or sync for those.
+     */
+    public void bootstrap() {
+        bootstrap(this::writeTsv);
+    }
+
+    /**
+     * Loads rows from any source into an empty contents table.
+     *
+     * @return true if the rows were loaded
+     */
+    boolean bootstrap(TsvSource source) {
+        long existing = bootstrapMapper.countOfficialContents();
+        if (existing > 0) {
+            logger.error("Bootstrap needs an empty catalog, but {} official contents exist. Use --sync instead.", existing);
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        Path tsv = null;
+        try {
+            tsv = Files.createTempFile("contents-bootstrap", ".tsv");
+            int written;
+            try (BufferedWriter out = Files.newBufferedWriter(tsv, StandardCharsets.UTF_8)) {
+                written = source.write(out);
+            }
+            logger.info("Normalized {} rows into {} in {} ms", written, tsv, System.currentTimeMillis() - start);
+
+            bootstrapMapper.dropStaging();
+            bootstrapMapper.createStaging();
+            int loaded = bootstrapMapper.loadStaging(tsv.toAbsolutePath().toString());
+            logger.info("Loaded {} rows into contents_staging", loaded);
+
+            bootstrapMapper.dropSecondaryIndexes();
+            try {
+                int inserted = bootstrapMapper.insertFromStaging();
+                logger.info("Moved {} rows into contents", inserted);
+            } finally {
+                long indexStart = System.currentTimeMillis();
+                // one connection for the session's foreign_key_checks
+                transactionTemplate.executeWithoutResult(status -> {
+                    bootstrapMapper.disableForeignKeyChecks();
+                    try {
+                        bootstrapMapper.addSecondaryIndexes();
+                    } finally {
+                        bootstrapMapper.enableForeignKeyChecks();
+                    }
+                });
+                logger.info("Rebuilt the contents indexes in {} ms", System.currentTimeMillis() - indexStart);
+            }
+            bootstrapMapper.dropStaging();
+            logger.info("-----Catalog bootstrap finished in {} ms-----", System.currentTimeMillis() - start);
+            return true;
+        } catch (IOException e) {
+            logger.error("Error writing the bootstrap file: {}", e.getMessage(), e);
+        } catch (Exception e) {
+            logger.error("Catalog bootstrap failed. LOAD DATA LOCAL INFILE needs local_infile=ON on the server " +
+                    "and allowLoadLocalInfile=true in DB_URL: ", e);
+        } finally {
+            if (tsv != null) {
+                try {
+                    Files.deleteIfExists(tsv);
+                } catch (IOException e) {
+                    logger.warn("Could not delete {}", tsv);
+                }
+            }
+        }
+        return false;
+    }
+
+    private int writeTsv(Writer out) throws IOException {
+        LongHashSet seen = new LongHashSet(EXPECTED_ROWS);
+        int written = 0;
+        written += writeTsv("tv_shows.csv", Category.TV_SHOW, seen, out);
+        written += writeTsv("movies.csv", Category.MOVIE, seen, out);
+        return written;
+    }
+
+    private int writeTsv(String fileName, Category defaultCategory, LongHashSet seen, Writer out) throws IOException {
+        Path filePath = CsvImportService.csvPath(fileName);
+        ImportErrorCounters errors = new ImportErrorCounters();
+        int written = 0;
+        int duplicates = 0;
+
+        try (CsvRecordReader reader = CsvRecordReader.open(filePath, 0)) {
+            reader.skip(1); // header
+            while (reader.next()) {
+                Content content;
+                try {
+                    content = rowMapper.map(reader.row(), defaultCategory, errors);
+                } catch (Exception e) {
+                    errors.record(ImportErrorCounters.Issue.PARSE_ERROR);
+                    continue;
+                }
+                if (content == null) {
+                    continue;
+                }
+                long key = ContentFingerprint.prefix(content.getFingerprint());
+                if (seen.contains(key)) {
+                    duplicates++;
+                    continue;
+                }
+                seen.add(key);
+                writeRow(content, out);
+                written++;
+            }
+        }
+        logger.info("File {}: {} rows normalized, {} duplicates skipped", fileName, written, duplicates);
+        errors.logSummary(logger, fileName);
+        return written;
+    }
+
+    static void writeRow(Content content, Writer out) throws IOException {
+        field(content.getTitle(), out);
+        out.write('\t');
+        field(content.getOtherTitle(), out);
+        out.write('\t');
+        field(content.getCountry(), out);
+        out.write('\t');
+        field(content.getLanguage(), out);
+        out.write('\t');
+        field(content.getDescription(), out);
+        out.write('\t');
+        field(content.getImage(), out);
+        out.write('\t');
+        field(content.getReleaseDate() != null ? content.getReleaseDate().toString() : null, out);
+        out.write('\t');
+        field(content.getGenre() != null ? content.getGenre().name() : null, out);
+        out.write('\t');
+        field(content.getCategory() != null ? content.getCategory().name() : null, out);
+        out.write('\t');
+        field(content.getSourceType() != null ? content.getSourceType().name() : null, out);
+        out.write('\t');
+        field(content.getFingerprint(), out);
+        out.write('\t');
+        out.write(Long.toString(content.getRowHash()));
+        out.write('\t');
+        field(content.getNormalizedTitle(), out);
+        out.write('\t');
+        field(content.getNormalizedOtherTitle(), out);
+        out.write('\n');
+    }
+
+    /**
+     * Writes a value with LOAD DATA's default escaping.
+     */
+    private static void field(String value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("\\N");
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\0' -> out.write("\\0");
+                default -> out.write(c);
+            }
+        }
+    }
+}
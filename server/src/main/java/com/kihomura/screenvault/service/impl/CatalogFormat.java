@@ -0,0 +1,35 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * A file format CsvImportService can import catalog data from.
+ * A format only tells where records are and how one becomes Content; batching, checkpoints,
+ * the parallel pipeline, throttling and dead letters are the same for every format.
+ * Formats are Spring beans and are asked in order, so a new one only needs to be a component.
+ */
+interface CatalogFormat<S extends RecordScanner> {
+
+    /**
+     * @param fileName the file name without a .gz suffix
+     */
+    boolean accepts(String fileName);
+
+    /**
+     * The number of records in front of the data, like a CSV header line.
+     */
+    int headerRecords();
+
+    /**
+     * Creates a scanner over a buffer; used for the reader's windows and for the parser threads' slices.
+     */
+    S scanner(ByteBuffer buffer, boolean endOfInput);
+
+    RecordMapper<S> mapper();
+
+    default RecordReader<S> open(Path path, long offset) throws IOException {
+        return new RecordReader<>(path, offset, this::scanner);
+    }
+}
@@ -0,0 +1,369 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+import com.kihomura.screenvault.enums.SourceType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary snapshot of the catalog, for seeding new environments without going through the CSV files.
+ * <p>
+ * Inside a gzip stream the file starts with a magic and a version, followed by row groups of up to
+ * {@link #ROW_GROUP_SIZE} rows and an empty group at the end. A row group stores its row count and then
+ * the 10 catalog columns one after the other, each as a length-prefixed block, so similar values sit
+ * next to each other for the compressor:
+ * <ul>
+ *     <li>country, language, genre, category and source type as a dictionary of the group's distinct
+ *     values and one varint code per row, 0 meaning null;</li>
+ *     <li>release dates as varints of the zigzagged epoch day plus one, 0 meaning null;</li>
+ *     <li>the other text columns as one varint length plus one per row, 0 meaning null,
+ *     followed by all of their UTF-8 bytes.</li>
+ * </ul>
+ * Fingerprint, row hash and normalized titles are not stored, because they are derived from the other columns
+ * when loading.
+ */
+final class CatalogSnapshot {
+
+    static final int ROW_GROUP_SIZE = 65536;
+
+    private static final byte[] MAGIC = {'S', 'V', 'S', 'N', 'A', 'P'};
+    private static final int VERSION = 1;
+
+    private static final Map<String, Genre> GENRES = names(Genre.class);
+    private static final Map<String, Category> CATEGORIES = names(Category.class);
+    private static final Map<String, SourceType> SOURCE_TYPES = names(SourceType.class);
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Writes contents to a snapshot file, one row group at a time.
+     */
+    static final class Writer implements Closeable {
+
+        private final OutputStream out;
+        private final List<Content> group = new ArrayList<>(ROW_GROUP_SIZE);
+        private final ByteArrayOutputStream column = new ByteArrayOutputStream(1 << 20);
+        private final ByteArrayOutputStream values = new ByteArrayOutputStream(1 << 20);
+        private long rows;
+
+        Writer(Path path) throws IOException {
+            this.out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16), 1 << 16);
+            out.write(MAGIC);
+            writeVarint(out, VERSION);
+        }
+
+        void write(Content content) throws IOException {
+            group.add(content);
+            rows++;
+            if (group.size() == ROW_GROUP_SIZE) {
+                flushGroup();
+            }
+        }
+
+        long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushGroup();
+                writeVarint(out, 0); // end of snapshot
+            } finally {
+                out.close();
+            }
+        }
+
+        private void flushGroup() throws IOException {
+            if (group.isEmpty()) {
+                return;
+            }
+            writeVarint(out, group.size());
+            writeText(Content::getTitle);
+            writeText(Content::getOtherTitle);
+            writeDictionary(Content::getCountry);
+            writeDictionary(Content::getLanguage);
+            writeText(Content::getDescription);
+            writeText(Content::getImage);
+            writeDates();
+            writeDictionary(content -> content.getGenre() != null ? content.getGenre().name() : null);
+            writeDictionary(content -> content.getCategory() != null ? content.getCategory().name() : null);
+            writeDictionary(content -> content.getSourceType() != null ? content.getSourceType().name() : null);
+            group.clear();
+        }
+
+        private void writeText(Function<Content, String> getter) throws IOException {
+            column.reset();
+            values.reset();
+            for (Content content : group) {
+                String value = getter.apply(content);
+                if (value == null) {
+                    writeVarint(column, 0);
+                } else {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    writeVarint(column, bytes.length + 1L);
+                    values.write(bytes);
+                }
+            }
+            values.writeTo(column);
+            writeColumn();
+        }
+
+        private void writeDictionary(Function<Content, String> getter) throws IOException {
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            values.reset();
+            for (Content content : group) {
+                String value = getter.apply(content);
+                if (value == null) {
+                    writeVarint(values, 0);
+                    continue;
+                }
+                Integer code = codes.get(value);
+                if (code == null) {
+                    dictionary.add(value);
+                    code = dictionary.size();
+                    codes.put(value, code);
+                }
+                writeVarint(values, code);
+            }
+            column.reset();
+            writeVarint(column, dictionary.size());
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarint(column, bytes.length);
+                column.write(bytes);
+            }
+            values.writeTo(column);
+            writeColumn();
+        }
+
+        private void writeDates() throws IOException {
+            column.reset();
+            for (Content content : group) {
+                LocalDate date = content.getReleaseDate();
+                if (date == null) {
+                    writeVarint(column, 0);
+                } else {
+                    long day = date.toEpochDay();
+                    writeVarint(column, ((day << 1) ^ (day >> 63)) + 1);
+                }
+            }
+            writeColumn();
+        }
+
+        private void writeColumn() throws IOException {
+            writeVarint(out, column.size());
+            column.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads the contents of a snapshot file, one row group at a time.
+     * Fingerprint, row hash and normalized titles are filled in as the CSV import would compute them.
+     */
+    static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private byte[] block = new byte[1 << 20];
+        private int blockPosition;
+
+        Reader(Path path) throws IOException {
+            this.in = new DataInputStream(new GZIPInputStream(
+                    new BufferedInputStream(Files.newInputStream(path), 1 << 16), 1 << 16));
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                in.close();
+                throw new IOException(path + " is not a catalog snapshot");
+            }
+            long version = readVarint(in);
+            if (version != VERSION) {
+                in.close();
+                throw new IOException("Unsupported snapshot version " + version + " in " + path);
+            }
+        }
+
+        /**
+         * @return the rows of the next row group, or an empty list at the end of the snapshot
+         */
+        List<Content> nextGroup() throws IOException {
+            int rows = (int) readVarint(in);
+            List<Content> group = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                group.add(new Content());
+            }
+            if (rows == 0) {
+                return group;
+            }
+            String[] values = new String[rows];
+            readText(values);
+            set(group, values, Content::setTitle);
+            readText(values);
+            set(group, values, Content::setOtherTitle);
+            readDictionary(values);
+            set(group, values, Content::setCountry);
+            readDictionary(values);
+            set(group, values, Content::setLanguage);
+            readText(values);
+            set(group, values, Content::setDescription);
+            readText(values);
+            set(group, values, Content::setImage);
+            readDates(group);
+            readDictionary(values);
+            set(group, values, (content, value) -> content.setGenre(constant(GENRES, value)));
+            readDictionary(values);
+            set(group, values, (content, value) -> content.setCategory(constant(CATEGORIES, value)));
+            readDictionary(values);
+            set(group, values, (content, value) -> content.setSourceType(constant(SOURCE_TYPES, value)));
+
+            for (Content content : group) {
+                content.setFingerprint(ContentFingerprint.of(content));
+                content.setRowHash(ContentFingerprint.rowHash(content));
+                TitleNormalizer.apply(content);
+            }
+            return group;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void readText(String[] values) throws IOException {
+            readBlock();
+            int[] lengths = new int[values.length];
+            for (int i = 0; i < values.length; i++) {
+                lengths[i] = (int) readBlockVarint();
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (lengths[i] == 0) {
+                    values[i] = null;
+                } else {
+                    values[i] = new String(block, blockPosition, lengths[i] - 1, StandardCharsets.UTF_8);
+                    blockPosition += lengths[i] - 1;
+                }
+            }
+        }
+
+        private void readDictionary(String[] values) throws IOException {
+            readBlock();
+            String[] dictionary = new String[(int) readBlockVarint() + 1];
+            for (int i = 1; i < dictionary.length; i++) {
+                int length = (int) readBlockVarint();
+                dictionary[i] = new String(block, blockPosition, length, StandardCharsets.UTF_8);
+                blockPosition += length;
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = dictionary[(int) readBlockVarint()];
+            }
+        }
+
+        private void readDates(List<Content> group) throws IOException {
+            readBlock();
+            for (Content content : group) {
+                long value = readBlockVarint();
+                if (value != 0) {
+                    long zigzag = value - 1;
+                    content.setReleaseDate(LocalDate.ofEpochDay((zigzag >>> 1) ^ -(zigzag & 1)));
+                }
+            }
+        }
+
+        /**
+         * Reads the next column block into {@link #block}.
+         */
+        private void readBlock() throws IOException {
+            int length = (int) readVarint(in);
+            if (block.length < length) {
+                block = new byte[Math.max(length, block.length * 2)];
+            }
+            in.readFully(block, 0, length);
+            blockPosition = 0;
+        }
+
+        private long readBlockVarint() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = block[blockPosition++];
+                value |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private static void set(List<Content> group, String[] values,
+                                BiConsumer<Content, String> setter) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    setter.accept(group.get(i), values[i]);
+                }
+            }
+        }
+
+        private static <E extends Enum<E>> E constant(Map<String, E> names, String value) {
+            E constant = names.get(value);
+            if (constant == null) {
+                throw new IllegalStateException("Unknown value " + value + " in snapshot");
+            }
+            return constant;
+        }
+    }
+
+    private static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            if (b < 0) {
+                throw new EOFException("Snapshot ends in the middle of a row group");
+            }
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static <E extends Enum<E>> Map<String, E> names(Class<E> enumClass) {
+        Map<String, E> names = new HashMap<>();
+        for (E value : enumClass.getEnumConstants()) {
+            names.put(value.name(), value);
+        }
+        return names;
+    }
+}
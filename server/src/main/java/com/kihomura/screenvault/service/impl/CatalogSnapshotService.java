@@ -0,0 +1,108 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Exports the official catalog to a binary snapshot (see CatalogSnapshot) and seeds an empty catalog from one.
+ * A snapshot is a fraction of the size of the CSV files and needs no parsing or validation when it is loaded:
+ * its rows go straight into the bootstrap's LOAD DATA path. Custom contents are not exported,
+ * because they belong to users that do not exist in a new environment.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private CatalogBootstrapService catalogBootstrapService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Writes all official contents to a snapshot file.
+     * The file is written next to the target and moved there once it is complete.
+     *
+     * @param snapshot the snapshot file
+     * @return the number of exported rows
+     */
+    public long export(Path snapshot) throws IOException {
+        long start = System.currentTimeMillis();
+        Path absolute = snapshot.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path partial = absolute.resolveSibling(absolute.getFileName() + ".partial");
+
+        long rows;
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(partial)) {
+            // MySQL streams the cursor only while its connection runs no other statement, so it is read inside
+            // one transaction, a read-only one since the export writes nothing
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            readOnly.executeWithoutResult(status -> {
+                try (Cursor<Content> cursor = contentMapper.streamOfficialContents()) {
+                    for (Content content : cursor) {
+                        writer.write(content);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows = writer.rows();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(partial);
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        Files.move(partial, absolute, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("-----Exported {} contents to {} ({} bytes) in {} ms-----",
+                rows, absolute, Files.size(absolute), System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Loads a snapshot into an empty contents table through the bootstrap's LOAD DATA path.
+     * Refuses to run if official contents exist already.
+     *
+     * @param snapshot the snapshot file
+     * @return true if the snapshot was loaded
+     */
+    public boolean load(Path snapshot) {
+        logger.info("Seeding the catalog from snapshot {}", snapshot);
+        return catalogBootstrapService.bootstrap(out -> writeTsv(snapshot, out));
+    }
+
+    private static int writeTsv(Path snapshot, Writer out) throws IOException {
+        int written = 0;
+        try (CatalogSnapshot.Reader reader = new CatalogSnapshot.Reader(snapshot)) {
+            List<Content> group;
+            while (!(group = reader.nextGroup()).isEmpty()) {
+                for (Content content : group) {
+                    CatalogBootstrapService.writeRow(content, out);
+                }
+                written += group.size();
+            }
+        }
+        return written;
+    }
+}
@@ -0,0 +1,132 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.mapper.ContentSwapMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Full catalog import that never touches the live contents table row by row.
+ * The live rows are copied into contents_staging with their ids, the CSV files are upserted there,
+ * and RENAME TABLE swaps the two tables atomically. Readers see either the old or the new catalog.
+ * Custom rows users create, edit or delete during the import are synced once more right before the swap,
+ * with both tables write-locked from that sync until the rename, so no change can stay behind in the old table.
+ */
+@Service
+public class CatalogSwapService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSwapService.class);
+    static final String STAGING_TABLE = "contents_staging";
+    // Ids kept free in staging for custom contents created in the live table while the import runs
+    private static final long CUSTOM_ID_RESERVE = 100_000;
+    // Width of the id ranges the live rows are copied in
+    private static final long COPY_RANGE = 10_000;
+
+    @Autowired
+    private ContentSwapMapper swapMapper;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Imports both catalog files into a staging copy of contents and swaps it in.
+     * Nothing is swapped if either file fails, or if users created more custom contents during the import
+     * than the ids reserved for them; the staging table is left for inspection then.
+     *
+     * @return true if the new catalog is live
+     */
+    public boolean importAndSwap() {
+        long start = System.currentTimeMillis();
+
+        swapMapper.dropStaging();
+        swapMapper.createStaging();
+        long maxId = swapMapper.findMaxContentId();
+        int copied = 0;
+        for (long afterId = 0; afterId < maxId; afterId += COPY_RANGE) {
+            copied += swapMapper.copyLiveContents(afterId, Math.min(afterId + COPY_RANGE, maxId));
+        }
+        long firstImportId = maxId + 1 + CUSTOM_ID_RESERVE;
+        swapMapper.setStagingAutoIncrement(firstImportId);
+        logger.info("Copied {} live rows into {}", copied, STAGING_TABLE);
+
+        boolean complete = csvImportService.importCsvFileInto(STAGING_TABLE, "tv_shows.csv", Category.TV_SHOW)
+                && csvImportService.importCsvFileInto(STAGING_TABLE, "movies.csv", Category.MOVIE);
+        if (!complete) {
+            logger.error("-----Staging import failed, the live catalog is unchanged-----");
+            return false;
+        }
+
+        try {
+            swap(firstImportId);
+        } catch (IllegalStateException e) {
+            logger.error("-----{}, the live catalog is unchanged-----", e.getMessage());
+            return false;
+        }
+        logger.info("-----Catalog swapped in after {} ms-----", System.currentTimeMillis() - start);
+        return true;
+    }
+
+    /**
+     * @param firstImportId the first id staging gave to imported rows; live custom rows must stay below it
+     */
+    private void swap(long firstImportId) {
+        // The table lock and foreign_key_checks are session state, so everything runs on one connection
+        transactionTemplate.executeWithoutResult(status -> {
+            swapMapper.dropUserContentForeignKey();
+            swapMapper.dropListContentForeignKey();
+            swapMapper.dropTagContentForeignKey();
+            try {
+                swapLocked(firstImportId);
+            } finally {
+                // Recreate the child keys against whichever table is called contents now
+                int orphans = swapMapper.removeOrphanUserContents()
+                        + swapMapper.removeOrphanListContents()
+                        + swapMapper.removeOrphanTagContents();
+                if (orphans > 0) {
+                    logger.warn("Removed {} user records of contents deleted during the swap", orphans);
+                }
+                swapMapper.disableForeignKeyChecks();
+                try {
+                    swapMapper.addUserContentForeignKey();
+                    swapMapper.addListContentForeignKey();
+                    swapMapper.addTagContentForeignKey();
+                } finally {
+                    swapMapper.enableForeignKeyChecks();
+                }
+            }
+        });
+
+        swapMapper.dropOld();
+        swapMapper.addCreatorForeignKey();
+    }
+
+    /**
+     * Syncs the custom rows and renames the tables under LOCK TABLES. RENAME TABLE of write-locked tables needs
+     * MySQL 8.0.13 or later; users' writes to contents wait meanwhile and then go to the new table.
+     *
+     * @throws IllegalStateException if live custom rows used up the reserved ids, so syncing them would
+     *                               overwrite imported rows
+     */
+    private void swapLocked(long firstImportId) {
+        swapMapper.lockForSwap();
+        try {
+            long maxLiveId = swapMapper.findMaxContentId();
+            if (maxLiveId >= firstImportId) {
+                throw new IllegalStateException("Custom contents created during the import reached id " + maxLiveId
+                        + ", past the " + CUSTOM_ID_RESERVE + " ids reserved for them");
+            }
+            int refreshed = swapMapper.refreshCustomContents();
+            int deleted = swapMapper.removeDeletedCustomContents();
+            logger.info("Synced custom contents changed during the import: {} refreshed, {} deleted", refreshed, deleted);
+            swapMapper.swap();
+        } finally {
+            swapMapper.unlockTables();
+        }
+    }
+}
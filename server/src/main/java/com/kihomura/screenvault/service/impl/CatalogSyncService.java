@@ -0,0 +1,194 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental sync of the official catalog with the CSV files.
+ * Every row carries a hash of its mutable columns; a sync compares it with the stored hash
+ * chunk by chunk and only writes new and changed rows. Official rows that no longer appear
+ * in any file are removed afterwards, unless users reference them.
+ * Memory stays bounded by the chunk size plus 64 bits per seen row.
+ */
+@Service
+public class CatalogSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSyncService.class);
+    private static final int CHUNK_SIZE = 5000;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final String CSV_DIR = "metadata";
+    // Around the size of the current catalog; the seen set grows if it is exceeded
+    private static final int EXPECTED_ROWS = 1_500_000;
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ContentRowMapper rowMapper = new ContentRowMapper();
+
+    /**
+     * Counts of one sync run.
+     */
+    public static class SyncStats {
+        private long unchanged;
+        private long written;
+        private long rejected;
+        private long removed;
+        private long keptReferenced;
+
+        long written() {
+            return written;
+        }
+
+        long rejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("written (new or changed): %d, unchanged: %d, rejected: %d, removed: %d, " +
+                    "kept because referenced: %d", written, unchanged, rejected, removed, keptReferenced);
+        }
+    }
+
+    /**
+     * Syncs both catalog files, then removes official contents that are in neither of them.
+     * The removal is skipped if a file could not be read completely.
+     *
+     * @return the counts of the run
+     */
+    public SyncStats syncAllData() {
+        return syncAllData(Paths.get(CSV_DIR));
+    }
+
+    /**
+     * @param dir the directory of the catalog files, each of which may also be gzip-compressed
+     */
+    SyncStats syncAllData(Path dir) {
+        SyncStats stats = new SyncStats();
+        LongHashSet seen = new LongHashSet(EXPECTED_ROWS);
+        long start = System.currentTimeMillis();
+        try {
+            syncFile(dir, "tv_shows.csv", Category.TV_SHOW, seen, stats);
+            syncFile(dir, "movies.csv", Category.MOVIE, seen, stats);
+            removeUnseen(seen, stats);
+        } catch (IOException e) {
+            logger.error("Error reading a catalog file, no contents were removed: {}", e.getMessage(), e);
+        }
+        logger.info("-----Catalog sync finished in {} ms, {}-----", System.currentTimeMillis() - start, stats);
+        return stats;
+    }
+
+    private void syncFile(Path dir, String fileName, Category defaultCategory, LongHashSet seen, SyncStats stats)
+            throws IOException {
+        Path filePath = CsvImportService.csvPath(dir, fileName);
+        ImportErrorCounters errors = new ImportErrorCounters();
+        logger.info("Starting to sync the file: {}", filePath);
+
+        try (CsvRecordReader reader = CsvRecordReader.open(filePath, 0)) {
+            reader.skip(1); // header
+            List<Content> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (reader.next()) {
+                Content content = parseRow(reader.row(), defaultCategory, errors);
+                if (content == null) {
+                    stats.rejected++;
+                    continue;
+                }
+                seen.add(ContentFingerprint.prefix(content.getFingerprint()));
+                chunk.add(content);
+                if (chunk.size() >= CHUNK_SIZE) {
+                    syncChunk(chunk, stats);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                syncChunk(chunk, stats);
+            }
+        }
+        errors.logSummary(logger, fileName);
+    }
+
+    private Content parseRow(CsvTokenizer row, Category defaultCategory, ImportErrorCounters errors) {
+        try {
+            return rowMapper.map(row, defaultCategory, errors);
+        } catch (Exception e) {
+            errors.record(ImportErrorCounters.Issue.PARSE_ERROR);
+            return null;
+        }
+    }
+
+    /**
+     * Looks up the stored hashes of one chunk and upserts the rows whose hash is missing or different.
+     */
+    private void syncChunk(List<Content> chunk, SyncStats stats) {
+        List<String> fingerprints = new ArrayList<>(chunk.size());
+        for (Content content : chunk) {
+            fingerprints.add(content.getFingerprint());
+        }
+        Map<String, Long> stored = new HashMap<>(chunk.size() * 2);
+        for (Content content : contentMapper.findRowHashes(fingerprints)) {
+            stored.put(content.getFingerprint(), content.getRowHash());
+        }
+
+        List<Content> changed = new ArrayList<>();
+        for (Content content : chunk) {
+            Long storedHash = stored.get(content.getFingerprint());
+            if (storedHash != null && storedHash.equals(content.getRowHash())) {
+                stats.unchanged++;
+            } else {
+                changed.add(content);
+            }
+        }
+        if (!changed.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> csvImportService.upsertBatch(changed));
+            stats.written += changed.size();
+        }
+    }
+
+    /**
+     * Streams the fingerprints of all official contents and deletes the ones the files no longer contain.
+     * The ids are collected first, because MySQL allows no other statement on a connection that is streaming.
+     */
+    private void removeUnseen(LongHashSet seen, SyncStats stats) {
+        List<Integer> unseen = transactionTemplate.execute(status -> {
+            List<Integer> ids = new ArrayList<>();
+            try (Cursor<Content> cursor = contentMapper.streamOfficialFingerprints()) {
+                for (Content content : cursor) {
+                    if (!seen.contains(ContentFingerprint.prefix(content.getFingerprint()))) {
+                        ids.add(content.getId());
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to stream stored fingerprints", e);
+            }
+            return ids;
+        });
+
+        for (int from = 0; from < unseen.size(); from += DELETE_CHUNK_SIZE) {
+            List<Integer> ids = unseen.subList(from, Math.min(from + DELETE_CHUNK_SIZE, unseen.size()));
+            int deleted = transactionTemplate.execute(status -> contentMapper.deleteUnreferenced(ids));
+            stats.removed += deleted;
+            stats.keptReferenced += ids.size() - deleted;
+        }
+    }
+}
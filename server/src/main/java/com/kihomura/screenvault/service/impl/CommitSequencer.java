@@ -0,0 +1,53 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets parallel import writers commit their checkpoints strictly in read order.
+ * A writer commits its rows concurrently with the others, then waits for its turn to commit
+ * the chunk's checkpoint row, so the latest checkpoint row is always a gap-free resume point.
+ * Waiting holds no database locks, so it cannot block the writer being waited for.
+ */
+class CommitSequencer {
+
+    private int next;
+    private boolean aborted;
+
+    CommitSequencer(int first) {
+        this.next = first;
+    }
+
+    /**
+     * Blocks until the checkpoint of every chunk before {@code chunkNo} has been committed.
+     *
+     * @throws CancellationException if the pipeline was aborted or the writer interrupted while waiting
+     */
+    synchronized void awaitTurn(int chunkNo) {
+        try {
+            while (next != chunkNo && !aborted) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting to commit chunk " + chunkNo);
+        }
+        if (aborted) {
+            throw new CancellationException("Import pipeline aborted before chunk " + chunkNo + " could commit");
+        }
+    }
+
+    /**
+     * Marks {@code chunkNo} as committed and wakes up the writer holding the next chunk.
+     */
+    synchronized void complete(int chunkNo) {
+        if (chunkNo == next) {
+            next++;
+            notifyAll();
+        }
+    }
+
+    synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+}
@@ -0,0 +1,79 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Computes the natural key of imported catalog content: an MD5 hex digest of
+ * title, release date and category, separated by a unit separator.
+ * The same value can be computed in MySQL with
+ * MD5(CONCAT_WS(CHAR(31), title, IFNULL(release_date, ''), IFNULL(category, ''))).
+ * Also computes the row hash of the remaining columns, which tells the delta sync whether a row changed.
+ */
+public final class ContentFingerprint {
+
+    private static final char SEPARATOR = '\u001f';
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ContentFingerprint() {
+    }
+
+    /**
+     * @param content the content, with at least a title
+     * @return the 32-character fingerprint
+     */
+    public static String of(Content content) {
+        StringBuilder key = new StringBuilder(content.getTitle().length() + 24)
+                .append(content.getTitle())
+                .append(SEPARATOR);
+        if (content.getReleaseDate() != null) {
+            key.append(content.getReleaseDate());
+        }
+        key.append(SEPARATOR);
+        if (content.getCategory() != null) {
+            key.append(content.getCategory().name());
+        }
+        return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hashes the columns that are not part of the fingerprint with 64-bit FNV-1a.
+     *
+     * @param content the content
+     * @return the row hash
+     */
+    public static long rowHash(Content content) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, content.getOtherTitle());
+        hash = hash(hash, content.getCountry());
+        hash = hash(hash, content.getLanguage());
+        hash = hash(hash, content.getDescription());
+        hash = hash(hash, content.getImage());
+        hash = hash(hash, content.getGenre() != null ? content.getGenre().name() : null);
+        hash = hash(hash, content.getSourceType() != null ? content.getSourceType().name() : null);
+        return hash;
+    }
+
+    /**
+     * Returns the first 64 bits of a fingerprint, compact enough to keep a whole catalog in memory.
+     */
+    static long prefix(String fingerprint) {
+        return Long.parseUnsignedLong(fingerprint, 0, 16, 16);
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            // distinguishes null from an empty string
+            return (hash ^ 0xff) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xff)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return (hash ^ SEPARATOR) * FNV_PRIME;
+    }
+}
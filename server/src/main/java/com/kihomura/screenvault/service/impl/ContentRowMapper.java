@@ -0,0 +1,159 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+import com.kihomura.screenvault.enums.SourceType;
+import com.kihomura.screenvault.service.impl.ImportErrorCounters.Issue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Maps a tokenized catalog CSV row to a Content object.
+ * All lookup structures are built once: enum names are resolved through byte-level hash tables,
+ * release dates are parsed by hand from their ISO bytes and two-letter country/language codes
+ * share one String instance per code. Bad values are counted instead of logged.
+ * Instances hold no per-row state and can be shared by parser threads.
+ */
+final class ContentRowMapper implements RecordMapper<CsvTokenizer> {
+
+    static final int COLUMN_COUNT = 10;
+
+    private static final EnumLookup<Genre> GENRES = new EnumLookup<>(Genre.class);
+    private static final EnumLookup<Category> CATEGORIES = new EnumLookup<>(Category.class);
+    private static final EnumLookup<SourceType> SOURCE_TYPES = new EnumLookup<>(SourceType.class);
+
+    // Canonical Strings of two-letter ASCII codes, indexed by their two bytes
+    private final String[] codes = new String[1 << 14];
+
+    /**
+     * @param row the current record of a tokenizer
+     * @param defaultCategory the category used when the row has none or an unknown one
+     * @param errors the counters of the current import run
+     * @return the content, or null if the row is rejected
+     */
+    @Override
+    public Content map(CsvTokenizer row, Category defaultCategory, ImportErrorCounters errors) {
+        if (row.fieldCount() < COLUMN_COUNT) {
+            errors.record(Issue.INSUFFICIENT_COLUMNS);
+            return null;
+        }
+
+        String title = row.field(0);
+        if (title == null) {
+            errors.record(Issue.EMPTY_TITLE);
+            return null;
+        }
+
+        Content content = new Content();
+        content.setTitle(title);
+        content.setOtherTitle(row.field(1));
+        content.setCountry(code(row, 2));
+        content.setLanguage(code(row, 3));
+        content.setDescription(row.field(4));
+        content.setImage(row.field(5));
+        content.setReleaseDate(releaseDate(row, errors));
+
+        content.setGenre(lookup(row, 7, GENRES, null, Issue.UNKNOWN_GENRE, errors));
+        content.setCategory(lookup(row, 8, CATEGORIES, defaultCategory, Issue.UNKNOWN_CATEGORY, errors));
+        content.setSourceType(lookup(row, 9, SOURCE_TYPES, SourceType.OFFICIAL_DATA, Issue.UNKNOWN_SOURCE_TYPE, errors));
+
+        content.setCreatorId(null);
+        content.setFingerprint(ContentFingerprint.of(content));
+        content.setRowHash(ContentFingerprint.rowHash(content));
+        TitleNormalizer.apply(content);
+        return content;
+    }
+
+    @Override
+    public Issue rejection(CsvTokenizer row) {
+        return row.fieldCount() < COLUMN_COUNT ? Issue.INSUFFICIENT_COLUMNS : Issue.EMPTY_TITLE;
+    }
+
+    @Override
+    public ByteBuffer deadLetterRecord(CsvTokenizer row) {
+        return row.record();
+    }
+
+    /**
+     * Resolves an enum column, falling back to a default for empty and unknown values.
+     */
+    private static <E extends Enum<E>> E lookup(CsvTokenizer row, int index, EnumLookup<E> names, E fallback,
+                                                Issue unknown, ImportErrorCounters errors) {
+        int length = row.decodeField(index);
+        if (length == 0) {
+            return fallback;
+        }
+        E value = names.find(row.scratch(), length);
+        if (value == null) {
+            errors.record(unknown, row.scratch(), length);
+            return fallback;
+        }
+        return value;
+    }
+
+    /**
+     * Parses a yyyy-MM-dd release date straight from the field bytes.
+     */
+    private LocalDate releaseDate(CsvTokenizer row, ImportErrorCounters errors) {
+        int length = row.decodeField(6);
+        if (length == 0) {
+            return null;
+        }
+        byte[] b = row.scratch();
+        if (length == 10 && b[4] == '-' && b[7] == '-') {
+            int year = digits(b, 0, 4);
+            int month = digits(b, 5, 2);
+            int day = digits(b, 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day);
+                } catch (DateTimeException e) {
+                    // out-of-range month or day, counted below
+                }
+            }
+        }
+        errors.record(Issue.BAD_RELEASE_DATE, b, length);
+        return null;
+    }
+
+    /**
+     * @return the decimal value of {@code count} ASCII digits, or -1 if any of them is not a digit
+     */
+    private static int digits(byte[] b, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Returns a shared String for two-letter ASCII codes and a fresh one for anything else.
+     */
+    private String code(CsvTokenizer row, int index) {
+        int length = row.decodeField(index);
+        if (length == 0) {
+            return null;
+        }
+        byte[] b = row.scratch();
+        if (length != 2 || b[0] < 0 || b[1] < 0) {
+            return new String(b, 0, length, StandardCharsets.UTF_8);
+        }
+        int key = (b[0] << 7) | b[1];
+        String code = codes[key];
+        if (code == null) {
+            // racing threads may each create the String once; any of them is a valid cache entry
+            code = new String(b, 0, 2, StandardCharsets.US_ASCII);
+            codes[key] = code;
+        }
+        return code;
+    }
+}
@@ -7,10 +7,19 @@ import com.kihomura.screenvault.enums.SourceType;
 import com.kihomura.screenvault.mapper.ContentMapper;
 import com.kihomura.screenvault.service.ContentService;
 import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.FacetFilter;
+import com.kihomura.screenvault.entity.FacetPage;
+import com.kihomura.screenvault.entity.Suggestion;
+import com.kihomura.screenvault.entity.TitlePage;
 import com.kihomura.screenvault.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implementation of ContentService interface.
@@ -22,22 +31,131 @@ public class ContentServiceImpl extends ServiceImpl<ContentMapper, Content> impl
 
     private final ContentMapper contentMapper;
     private final UserService userService;
+    private final TitleSearchService titleSearchService;
+    private final TextSearchService textSearchService;
+    private final SuggestService suggestService;
+    private final FacetService facetService;
+    private final int pageSize;
+    private final int maxPageSize;
 
-    public ContentServiceImpl(ContentMapper contentMapper, UserService userService) {
+    public ContentServiceImpl(ContentMapper contentMapper, UserService userService,
+                              TitleSearchService titleSearchService, TextSearchService textSearchService,
+                              SuggestService suggestService, FacetService facetService,
+                              @Value("${app.search.page-size:20}") int pageSize,
+                              @Value("${app.search.max-page-size:100}") int maxPageSize) {
         this.contentMapper = contentMapper;
         this.userService = userService;
+        this.titleSearchService = titleSearchService;
+        this.textSearchService = textSearchService;
+        this.suggestService = suggestService;
+        this.facetService = facetService;
+        this.maxPageSize = maxPageSize;
+        this.pageSize = Math.min(pageSize, maxPageSize);
     }
 
+    /**
+     * Finds a page of the official contents and the current user's custom contents whose title or other title
+     * contains the normalized query, ranked exact matches first, then prefix matches, then other substring
+     * matches, each by id. If nothing contains the query, the titles closest to it within a few typos are
+     * returned instead. Pages are keyset-paged: the cursor holds the rank of the last match shown,
+     * so every page costs about the same, however deep.
+     *
+     * @param title the query
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param size the page size, app.search.page-size by default and at most app.search.max-page-size
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the cursor is invalid or belongs to another query
+     */
     @Override
-    public List<Content> findByTitle(String title) {
+    public TitlePage searchByTitle(String title, String cursor, Integer size) {
         String normalizedTitle = normalize(title);
-        return contentMapper.findByTitle(normalizedTitle);
+        if (normalizedTitle.isEmpty()) {
+            return TitlePage.builder().items(Collections.emptyList()).build();
+        }
+        int limit = size != null ? Math.max(1, Math.min(size, maxPageSize)) : pageSize;
+        long after = cursor != null && !cursor.isEmpty() ? TitleCursor.decode(normalizedTitle, cursor) : -1;
+        Integer currentUserId = userService.getCurrentUserId();
+
+        // one more than the page, to know whether there is a next one
+        long[] keys = titleSearchService.search(normalizedTitle,
+                TitleIndex.owner(SourceType.CUSTOM_DATA, currentUserId), after, limit + 1);
+        List<Content> items;
+        if (keys != null) {
+            items = findByKeys(keys, Math.min(keys.length, limit));
+        } else {
+            // index still building: prefix matches from the indexed columns, which rank before any other match
+            int afterTier = (int) (after >> 32);
+            items = afterTier > TitleIndex.PREFIX ? new ArrayList<>() : contentMapper.findTitlePage(
+                    normalizedTitle, currentUserId, afterTier, TitleIndex.id(after), limit + 1);
+            keys = new long[items.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Content content = items.get(i);
+                boolean exact = normalizedTitle.equals(content.getNormalizedTitle())
+                        || normalizedTitle.equals(content.getNormalizedOtherTitle());
+                keys[i] = TitleIndex.key(exact ? TitleIndex.EXACT : TitleIndex.PREFIX, content.getId());
+            }
+            if (items.size() > limit) {
+                items = items.subList(0, limit);
+            }
+        }
+        String nextCursor = keys.length > limit ? TitleCursor.encode(normalizedTitle, keys[limit - 1]) : null;
+        boolean fuzzy = keys.length > 0 && keys[0] >> 32 >= TitleIndex.FUZZY;
+        return TitlePage.builder().items(items).nextCursor(nextCursor).fuzzy(fuzzy).build();
     }
 
+    /**
+     * Finds the official contents and the current user's custom contents whose title, other title or description
+     * contain the words of the query, ranked by BM25 relevance.
+     *
+     * @param query the words to search for
+     * @param limit the number of results
+     * @return the best matching contents, best first, or null while the full-text index is not built yet
+     */
     @Override
-    public List<Content> findByTitleAndCreator(String title) {
-        String normalizedTitle = normalize(title);
-        return contentMapper.findByTitleAndCreator(normalizedTitle, userService.getCurrentUserId());
+    public List<Content> searchText(String query, int limit) {
+        int[] ids = textSearchService.search(query,
+                TitleIndex.owner(SourceType.CUSTOM_DATA, userService.getCurrentUserId()), limit);
+        if (ids == null) {
+            return null;
+        }
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            keys[i] = ids[i];
+        }
+        return findByKeys(keys, keys.length);
+    }
+
+    /**
+     * Browses the official catalog narrowed to the given genres, categories, countries, languages and release years,
+     * in id order. Filtering and counting run on the in-memory facet bitmaps; only the page itself is read from the
+     * table. Pages are keyset-paged by id.
+     *
+     * @param filter the facet values to narrow to
+     * @param after the nextAfter of the previous page, or null for the first page
+     * @param size the page size, app.search.page-size by default and at most app.search.max-page-size
+     * @return the page with the total and the facet counts, or null while the facet index is not built yet
+     * @throws IllegalArgumentException if a genre or category does not exist
+     */
+    @Override
+    public FacetPage browse(FacetFilter filter, Integer after, Integer size) {
+        validateEnumValues(filter.getGenres(), Genre.class, "Genre doesn't exist");
+        validateEnumValues(filter.getCategories(), Category.class, "Category doesn't exist");
+        int limit = size != null ? Math.max(1, Math.min(size, maxPageSize)) : pageSize;
+        int afterId = after != null ? Math.max(0, after) : 0;
+
+        // one more than the page, to know whether there is a next one
+        FacetIndex.Result result = facetService.browse(filter, afterId, limit + 1);
+        if (result == null) {
+            return null;
+        }
+        int count = Math.min(result.ids.length, limit);
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = result.ids[i];
+        }
+        Integer nextAfter = result.ids.length > limit ? result.ids[limit - 1] : null;
+        return FacetPage.builder().items(findByKeys(keys, count)).total(result.total)
+                .nextAfter(nextAfter).facets(result.counts).build();
     }
 
     @Override
@@ -69,25 +187,89 @@ public class ContentServiceImpl extends ServiceImpl<ContentMapper, Content> impl
 
         content.setSourceType(SourceType.CUSTOM_DATA);
         content.setCreatorId(userService.getCurrentUserId());
+        // a catalog fingerprint on a custom row would let the next import take it over as official content
+        content.setFingerprint(null);
+        content.setRowHash(null);
+        TitleNormalizer.apply(content);
 
-        return this.saveOrUpdate(content);
+        boolean saved = this.saveOrUpdate(content);
+        if (saved) {
+            titleSearchService.saved(content);
+            textSearchService.saved(content);
+        }
+        return saved;
     }
 
     @Override
     public boolean delete(int contentId) {
-        return contentMapper.deleteByIdAndCreator(contentId, userService.getCurrentUserId());
+        boolean deleted = contentMapper.deleteByIdAndCreator(contentId, userService.getCurrentUserId());
+        if (deleted) {
+            titleSearchService.deleted(contentId);
+            textSearchService.deleted(contentId);
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Suggestion> suggest(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return suggestService.suggest(normalizedQuery, limit);
+    }
+
+    /**
+     * Loads the contents of a page found by a search index, in one query, in ranking order.
+     *
+     * @param keys the ranking keys of the matches, with the content id in the low 32 bits
+     * @param count the number of keys to load
+     * @return the contents that still exist
+     */
+    private List<Content> findByKeys(long[] keys, int count) {
+        if (count == 0) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(TitleIndex.id(keys[i]));
+        }
+        Map<Integer, Content> byId = new HashMap<>();
+        for (Content content : contentMapper.selectByIds(ids)) {
+            byId.put(content.getId(), content);
+        }
+        List<Content> contents = new ArrayList<>(count);
+        for (Integer id : ids) {
+            Content content = byId.get(id);
+            if (content != null) {
+                contents.add(content);
+            }
+        }
+        return contents;
     }
 
     /**
-     * Normalizes input string by removing all non-letter characters and converting to lowercase.
-     * Used for fuzzy title matching in search operations.
+     * Normalizes input string by removing all characters but letters and digits and folding case and accents,
+     * the same way the stored normalized titles are computed.
+     * Used for substring title matching in search operations.
      * 
      * @param input the string to normalize
-     * @return normalized string containing only lowercase letters
+     * @return normalized string containing only folded letters and digits
      */
     private String normalize(String input) {
         if (input == null) return "";
-        return input.replaceAll("[^a-zA-Z]", "").toLowerCase();
+        return TitleNormalizer.normalize(input);
+    }
+
+    private void validateEnumValues(List<String> values, Class<? extends Enum<?>> enumClass, String message) {
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            if (!isValidEnumValue(value, enumClass)) {
+                throw new IllegalArgumentException(message);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,17 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+
+import java.util.List;
+
+/**
+ * Where an import writes its content. The import calls it inside the transaction of each chunk.
+ * The sequential import commits the chunk's checkpoint in that transaction as well; parallel writers
+ * commit it in a transaction of its own, after waiting for their turn outside the chunk's transaction,
+ * so whatever the sink writes may be committed without its checkpoint and must be safe to write again on resume.
+ */
+@FunctionalInterface
+interface ContentSink {
+
+    void write(List<Content> contents);
+}
@@ -0,0 +1,38 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The 10-column catalog CSV layout of movies.csv and tv_shows.csv, with one header line.
+ * Asked last, it takes every file no other format claims, e.g. movies.csv.fixed.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+class CsvCatalogFormat implements CatalogFormat<CsvTokenizer> {
+
+    private final ContentRowMapper mapper = new ContentRowMapper();
+
+    @Override
+    public boolean accepts(String fileName) {
+        return true;
+    }
+
+    @Override
+    public int headerRecords() {
+        return 1;
+    }
+
+    @Override
+    public CsvTokenizer scanner(ByteBuffer buffer, boolean endOfInput) {
+        return new CsvTokenizer(buffer, endOfInput);
+    }
+
+    @Override
+    public ContentRowMapper mapper() {
+        return mapper;
+    }
+}
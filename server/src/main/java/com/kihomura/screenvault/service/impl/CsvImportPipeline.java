@@ -0,0 +1,229 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Staged import pipeline: the calling thread reads raw chunks, N parser workers turn them into content
+ * and M writer workers commit them. The stages are connected by bounded buffers, so a slow database
+ * blocks the parsers and the reader instead of letting parsed rows pile up in memory.
+ */
+class CsvImportPipeline implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvImportPipeline.class);
+    private static final long OFFER_TIMEOUT_MS = 200;
+
+    /**
+     * Raw CSV bytes of one chunk; {@code startLine} is the line the chunk starts after
+     * and {@code endOffset} the byte offset right after its last record.
+     */
+    record RawChunk(int chunkNo, int startLine, int endLine, long endOffset, RecordReader.RecordSlice slice) {}
+
+    /**
+     * Parsed content of one chunk, ready to be committed; {@code sourceOffsets[i]} is the byte offset
+     * of the record {@code contents.get(i)} was parsed from.
+     */
+    record ParsedChunk(int chunkNo, int startLine, int endLine, long endOffset, List<Content> contents,
+                       long[] sourceOffsets) {}
+
+    /**
+     * Commits one parsed chunk, waiting on the sequencer before committing its checkpoint.
+     */
+    interface ChunkWriter {
+        void write(ParsedChunk chunk, CommitSequencer sequencer);
+    }
+
+    // Marks the end of the raw queue for the parsers
+    private static final RawChunk END_OF_RAW = new RawChunk(-1, 0, 0, 0, null);
+
+    private final BlockingQueue<RawChunk> rawQueue;
+    private final OrderedHandoff parsed;
+    private final ExecutorService workers;
+    private final CommitSequencer sequencer;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicInteger runningParsers;
+
+    CsvImportPipeline(int parserThreads, int writerThreads, int queueCapacity, int firstChunkNo,
+                      Function<RawChunk, ParsedChunk> parser, ChunkWriter writer) {
+        this.rawQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.parsed = new OrderedHandoff(queueCapacity, firstChunkNo);
+        this.sequencer = new CommitSequencer(firstChunkNo);
+        this.runningParsers = new AtomicInteger(parserThreads);
+        this.workers = Executors.newFixedThreadPool(parserThreads + writerThreads, new ImportThreadFactory());
+
+        for (int i = 0; i < parserThreads; i++) {
+            workers.execute(() -> runParser(parser));
+        }
+        for (int i = 0; i < writerThreads; i++) {
+            workers.execute(() -> runWriter(writer));
+        }
+    }
+
+    /**
+     * Hands a raw chunk to the parsers, blocking while the queue is full.
+     *
+     * @return false if the pipeline has failed and no more chunks should be submitted
+     */
+    boolean submit(RawChunk chunk) throws InterruptedException {
+        while (failure.get() == null) {
+            if (rawQueue.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Signals the end of input and waits until every submitted chunk is committed.
+     *
+     * @return the first error raised by a worker, or null if the pipeline completed cleanly
+     */
+    Throwable finish() throws InterruptedException {
+        for (int i = 0; i < runningParsers.get(); i++) {
+            if (!submit(END_OF_RAW)) {
+                break;
+            }
+        }
+        workers.shutdown();
+        while (!workers.awaitTermination(OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (failure.get() != null) {
+                workers.shutdownNow();
+            }
+        }
+        return failure.get();
+    }
+
+    @Override
+    public void close() {
+        if (!workers.isTerminated()) {
+            abort();
+            workers.shutdownNow();
+        }
+    }
+
+    private void runParser(Function<RawChunk, ParsedChunk> parser) {
+        try {
+            RawChunk chunk;
+            while ((chunk = rawQueue.take()) != END_OF_RAW) {
+                if (!parsed.put(parser.apply(chunk))) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            // The last parser to leave tells the writers that no more chunks will come
+            if (runningParsers.decrementAndGet() == 0) {
+                parsed.close();
+            }
+        }
+    }
+
+    private void runWriter(ChunkWriter writer) {
+        try {
+            ParsedChunk chunk;
+            while ((chunk = parsed.take()) != null) {
+                writer.write(chunk, sequencer);
+                sequencer.complete(chunk.chunkNo());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            fail(t);
+        }
+    }
+
+    private void fail(Throwable t) {
+        if (failure.compareAndSet(null, t)) {
+            logger.error("Import pipeline worker failed, aborting: ", t);
+        }
+        abort();
+    }
+
+    private void abort() {
+        sequencer.abort();
+        parsed.abort();
+    }
+
+    /**
+     * Bounded buffer between parsers and writers that hands chunks out in chunk order.
+     * Parsers finish out of order; releasing chunks in order guarantees that the writer
+     * the sequencer is waiting for already holds its chunk, so the writers cannot deadlock.
+     * The next chunk in order is always accepted, even when the buffer is full.
+     */
+    private static class OrderedHandoff {
+        private final TreeMap<Integer, ParsedChunk> pending = new TreeMap<>();
+        private final int capacity;
+        private int nextChunkNo;
+        private boolean closed;
+        private boolean aborted;
+
+        OrderedHandoff(int capacity, int firstChunkNo) {
+            this.capacity = capacity;
+            this.nextChunkNo = firstChunkNo;
+        }
+
+        synchronized boolean put(ParsedChunk chunk) throws InterruptedException {
+            while (pending.size() >= capacity && chunk.chunkNo() != nextChunkNo && !aborted) {
+                wait();
+            }
+            if (aborted) {
+                return false;
+            }
+            pending.put(chunk.chunkNo(), chunk);
+            notifyAll();
+            return true;
+        }
+
+        /**
+         * @return the next chunk in order, or null once all chunks have been handed out
+         */
+        synchronized ParsedChunk take() throws InterruptedException {
+            while (!aborted && !pending.containsKey(nextChunkNo) && !(closed && pending.isEmpty())) {
+                wait();
+            }
+            ParsedChunk chunk = aborted ? null : pending.remove(nextChunkNo);
+            if (chunk != null) {
+                nextChunkNo++;
+                notifyAll();
+            }
+            return chunk;
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        synchronized void abort() {
+            aborted = true;
+            notifyAll();
+        }
+    }
+
+    private static class ImportThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "csv-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
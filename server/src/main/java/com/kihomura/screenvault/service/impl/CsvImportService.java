@@ -1,60 +1,102 @@
 package com.kihomura.screenvault.service.impl;
 
 import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.ImportCheckpoint;
 import com.kihomura.screenvault.enums.Category;
-import com.kihomura.screenvault.enums.Genre;
-import com.kihomura.screenvault.enums.SourceType;
 import com.kihomura.screenvault.mapper.ContentMapper;
-import com.opencsv.CSVParserBuilder;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.exceptions.CsvValidationException;
+import com.kihomura.screenvault.mapper.ImportCheckpointMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Service for importing content data from CSV files.
  * Handles batch import of movies and TV shows data with error recovery capabilities.
- * Supports resuming imports from the last successfully processed line.
+ * Every batch is committed in its own transaction together with a checkpoint row,
+ * so an interrupted import loses at most one batch and can resume from the last checkpoint.
+ * Batch size and pacing follow ImportThrottle, which keeps commits within a latency budget on a live database.
+ * Besides the catalog CSV layout, any {@link CatalogFormat} bean can be imported, e.g. JSON lines;
+ * the format is chosen by file name and all of the above applies to it unchanged.
  */
 @Service
 public class CsvImportService {
 
     private static final Logger logger = LoggerFactory.getLogger(CsvImportService.class);
     private static final int BATCH_SIZE = 5000;
+    // Rows per multi-row INSERT statement, keeps each statement well below max_allowed_packet
+    private static final int INSERT_CHUNK_SIZE = 1000;
     private static final String CSV_DIR = "metadata";
+    static final String CONTENTS_TABLE = "contents";
 
     @Autowired
     private ContentMapper contentMapper;
+
+    @Autowired
+    private ImportCheckpointMapper importCheckpointMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImportThrottle throttle;
+
+    // In @Order; the CSV format comes last and takes any file the others do not claim
+    @Autowired
+    private List<CatalogFormat<?>> formats;
+
+    // Runs the import through the reader/parser/writer pipeline instead of a single thread
+    @Value("${app.import.parallel:false}")
+    private boolean parallel;
+
+    @Value("${app.import.parser-threads:2}")
+    private int parserThreads;
+
+    @Value("${app.import.writer-threads:4}")
+    private int writerThreads;
+
+    // Chunks buffered between two pipeline stages before the stage in front has to wait
+    @Value("${app.import.queue-capacity:4}")
+    private int queueCapacity;
     
-    // Records the last imported line to avoid interruptions from unexpected errors,
-    // so it can resume from there next time
-    private AtomicInteger lastSuccessfulLine = new AtomicInteger(0);
+    // Reads dead-letter files, which always use the catalog CSV layout
+    private final ContentRowMapper rowMapper = new ContentRowMapper();
 
     /**
      * Imports all CSV files (movies and TV shows).
      */
     public void importAllData() {
+        importAllData(new ImportProgress());
+    }
+
+    /**
+     * Imports all CSV files (movies and TV shows), reporting to and controlled by the given progress.
+     * Stops before the second file if the first one did not complete.
+     *
+     * @param progress the progress of the run
+     * @return true if both files were imported completely
+     */
+    public boolean importAllData(ImportProgress progress) {
         try {
-            importCsvFile("tv_shows.csv", Category.TV_SHOW);
-            importCsvFile("movies.csv", Category.MOVIE);
+            return importCsvFileFrom(CONTENTS_TABLE, "tv_shows.csv", Category.TV_SHOW, 1, -1, progress)
+                    && importCsvFileFrom(CONTENTS_TABLE, "movies.csv", Category.MOVIE, 1, -1, progress);
         } catch (Exception e) {
             logger.error("Error in the import process: ", e);
+            return false;
         }
     }
 
@@ -73,13 +115,45 @@ public class CsvImportService {
         }
     }
 
+    /**
+     * Resumes a CSV file right after its last committed checkpoint.
+     * Seeks straight to the checkpoint's byte offset, so nothing in front of it is read again.
+     * Starts from the beginning if the file has no checkpoint yet.
+     *
+     * @param fileName The name of the CSV file (movies or tv_shows)
+     */
+    public void resumeImport(String fileName) {
+        resumeImport(fileName, new ImportProgress());
+    }
+
+    /**
+     * Resumes a CSV file right after its last committed checkpoint,
+     * reporting to and controlled by the given progress.
+     *
+     * @param fileName The name of the CSV file (movies or tv_shows)
+     * @param progress the progress of the run
+     * @return true if the rest of the file was imported completely
+     */
+    public boolean resumeImport(String fileName, ImportProgress progress) {
+        ImportCheckpoint checkpoint = importCheckpointMapper.findLatestByFileName(fileName);
+        logger.info("Last checkpoint of {}: {}", fileName, checkpoint);
+        int startLine = checkpoint != null ? checkpoint.getEndLine() : 1;
+        long startOffset = checkpoint != null && checkpoint.getEndOffset() != null ? checkpoint.getEndOffset() : -1;
+        try {
+            Category category = fileName.contains("movie") ? Category.MOVIE : Category.TV_SHOW;
+            return importCsvFileFrom(CONTENTS_TABLE, fileName, category, startLine, startOffset, progress);
+        } catch (Exception e) {
+            logger.error("Error in the import recovery process: ", e);
+            return false;
+        }
+    }
+
     /**
      * Imports a single CSV file starting from line 1 (skipping header).
      * 
      * @param fileName the CSV file name
      * @param defaultCategory the default category for content
      */
-    @Transactional
     public void importCsvFile(String fileName, Category defaultCategory) {
         importCsvFileFromLine(fileName, defaultCategory, 1); // skip the header
     }
@@ -87,129 +161,535 @@ public class CsvImportService {
     /**
      * Imports a single CSV file starting from a specified line.
      * Uses batch processing for efficient database operations.
+     * Each batch is committed on its own, so undo/redo pressure does not grow with the file size.
      * 
      * @param fileName the CSV file name
      * @param defaultCategory the default category for content
      * @param startLine the line number to start from
      */
-    @Transactional
     public void importCsvFileFromLine(String fileName, Category defaultCategory, int startLine) {
-        Path filePath = Paths.get(CSV_DIR, fileName);
+        importCsvFileFrom(CONTENTS_TABLE, fileName, defaultCategory, startLine, -1, new ImportProgress());
+    }
+
+    /**
+     * Imports a whole CSV file into another table with the same layout as contents, e.g. a staging table.
+     * Its checkpoints are recorded under "table/fileName", so they never mix with those of the live table.
+     *
+     * @param table the target table
+     * @param fileName the CSV file name
+     * @param defaultCategory the default category for content
+     * @return true if the whole file was read and committed
+     */
+    public boolean importCsvFileInto(String table, String fileName, Category defaultCategory) {
+        return importCsvFileFrom(table, fileName, defaultCategory, 1, -1, new ImportProgress());
+    }
+
+    /**
+     * Imports the rows an earlier import of a file rejected, after they were fixed by hand in its dead-letter file.
+     * Rows that are rejected again stay in the dead-letter file, the others are removed from it.
+     *
+     * @param fileName the CSV file name the rows were rejected from
+     * @param defaultCategory the default category for content
+     * @return the number of rows saved
+     */
+    public int replayRejected(String fileName, Category defaultCategory) {
+        return replayRejected(deadLetterPath(CONTENTS_TABLE, fileName), fileName, defaultCategory);
+    }
+
+    int replayRejected(Path deadLetterPath, String fileName, Category defaultCategory) {
+        if (!Files.exists(deadLetterPath)) {
+            logger.info("No rejected rows to replay for {}", fileName);
+            return 0;
+        }
+        Path retryPath = deadLetterPath.resolveSibling(deadLetterPath.getFileName() + ".retry");
+        ImportErrorCounters errors = new ImportErrorCounters();
+        int saved = 0;
+
+        try (CsvRecordReader reader = CsvRecordReader.open(deadLetterPath, 0);
+             DeadLetterWriter stillRejected = new DeadLetterWriter(retryPath, false)) {
+            reader.skip(1); // header
+            List<Content> batch = new ArrayList<>(BATCH_SIZE);
+            long[] offsets = new long[BATCH_SIZE];
+            while (reader.next()) {
+                CsvTokenizer row = reader.row();
+                long sourceOffset = sourceOffset(row);
+                row.dropLeadingFields(DeadLetterWriter.LEADING_COLUMNS);
+                Content content = parseRow(rowMapper, row, defaultCategory, errors, stillRejected, sourceOffset);
+                if (content != null) {
+                    offsets[batch.size()] = sourceOffset;
+                    batch.add(content);
+                }
+                if (batch.size() >= BATCH_SIZE) {
+                    saved += replayBatch(batch, offsets, errors, stillRejected);
+                    batch.clear();
+                }
+            }
+            saved += replayBatch(batch, offsets, errors, stillRejected);
+            stillRejected.close();
+
+            if (stillRejected.count() > 0) {
+                Files.move(retryPath, deadLetterPath, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.delete(deadLetterPath);
+            }
+            logger.info("-----Replayed rejected rows of {}: saved {}, still rejected {}-----",
+                    fileName, saved, stillRejected.count());
+            errors.logSummary(logger, fileName);
+        } catch (IOException e) {
+            logger.error("Error replaying rejected rows of {}: {}", fileName, e.getMessage(), e);
+        }
+        return saved;
+    }
+
+    private int replayBatch(List<Content> batch, long[] offsets, ImportErrorCounters errors,
+                            DeadLetterWriter deadLetters) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsertBatch(CONTENTS_TABLE, batch));
+            return batch.size();
+        } catch (Exception e) {
+            logger.error("Failed to replay a batch of {} rows: ", batch.size(), e);
+            return saveOneByOne(contents -> upsertBatch(CONTENTS_TABLE, contents), batch, offsets, errors, deadLetters);
+        }
+    }
+
+    /**
+     * Reads the source offset column of a dead-letter record, -1 if it is missing.
+     */
+    private static long sourceOffset(CsvTokenizer row) {
+        try {
+            String value = row.fieldCount() > 1 ? row.field(1) : null;
+            return value != null ? Long.parseLong(value) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Finds a catalog file under metadata/, falling back to a gzip copy of it, e.g. movies.csv.gz for movies.csv.
+     * Checkpoints and dead-letter files keep using the plain name; their offsets count decompressed bytes.
+     */
+    static Path csvPath(String fileName) {
+        return csvPath(Paths.get(CSV_DIR), fileName);
+    }
+
+    static Path csvPath(Path dir, String fileName) {
+        Path plain = dir.resolve(fileName);
+        Path gzip = dir.resolve(fileName + ".gz");
+        return !Files.exists(plain) && Files.exists(gzip) ? gzip : plain;
+    }
+
+    private CatalogFormat<?> format(String fileName) {
+        for (CatalogFormat<?> format : formats) {
+            if (format.accepts(fileName)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("No import format accepts " + fileName);
+    }
+
+    static Path deadLetterPath(String table, String fileName) {
+        return Paths.get(CSV_DIR, "rejected", checkpointName(table, fileName));
+    }
+
+    /**
+     * Imports a single CSV file from a known position.
+     *
+     * @param table the target table
+     * @param fileName the CSV file name
+     * @param defaultCategory the default category for content
+     * @param startLine the number of lines in front of the start position
+     * @param startOffset the byte offset of the start position, or -1 to skip startLine records from the top
+     * @param progress receives committed chunks; pausing or cancelling it takes effect after the next commit
+     * @return true if the whole file was read and committed
+     */
+    private boolean importCsvFileFrom(String table, String fileName, Category defaultCategory,
+                                      int startLine, long startOffset, ImportProgress progress) {
+        // Rows of an earlier run of the same import stay in the dead-letter file when it is resumed
+        CatalogFormat<?> format = format(fileName);
+        ContentSink sink = contents -> upsertBatch(table, contents);
+        String checkpointName = checkpointName(table, fileName);
+        try (DeadLetterWriter deadLetters = new DeadLetterWriter(deadLetterPath(table, fileName), startLine > 1)) {
+            boolean done = parallel
+                    ? importCsvFileParallel(format, sink, checkpointName, fileName, defaultCategory,
+                            startLine, startOffset, progress, deadLetters)
+                    : importCsvFileSequential(format, sink, checkpointName, fileName, defaultCategory,
+                            startLine, startOffset, progress, deadLetters);
+            if (deadLetters.count() > 0) {
+                logger.info("{} rejected rows of {} written to {}", deadLetters.count(), fileName, deadLetters.path());
+            }
+            return done;
+        } catch (IOException e) {
+            logger.error("Error importing file: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
+    private <S extends RecordScanner> boolean importCsvFileSequential(CatalogFormat<S> format, ContentSink sink,
+                                                                      String checkpointName, String fileName,
+                                                                      Category defaultCategory, int startLine,
+                                                                      long startOffset, ImportProgress progress,
+                                                                      DeadLetterWriter deadLetters) {
+        Path filePath = csvPath(fileName);
         AtomicInteger totalProcessed = new AtomicInteger(0);
         AtomicInteger successCount = new AtomicInteger(0);
         AtomicInteger failCount = new AtomicInteger(0);
         AtomicInteger currentLine = new AtomicInteger(0);
+        ImportErrorCounters errors = new ImportErrorCounters();
+        int chunkNo = nextChunkNo(checkpointName, startLine);
+        int chunkStartLine = startLine;
 
         logger.info("Starting to import the file: {}, from line {}", filePath, startLine);
 
         try {
-            var csvParser = new CSVParserBuilder()
-                    .withSeparator(',')
-                    .withQuoteChar('"')
-                    .withEscapeChar('\\')
-                    .withStrictQuotes(false)
-                    .withIgnoreLeadingWhiteSpace(true)
-                    .withIgnoreQuotations(false)
-                    .withErrorLocale(java.util.Locale.getDefault())
-                    .build();
-
-            try (BufferedReader fileReader = new BufferedReader(
-                    new InputStreamReader(new FileInputStream(filePath.toFile()), StandardCharsets.UTF_8));
-                 CSVReader reader = new CSVReaderBuilder(fileReader)
-                         .withSkipLines(startLine)
-                         .withCSVParser(csvParser)
-                         .build())
-            {
+            try (RecordReader<S> reader = openRecordReader(format, filePath, startLine, startOffset)) {
+                progress.startFile(fileName, reader.size(), reader.offset());
+                ImportThrottle.Run pacing = throttle.start(BATCH_SIZE);
                 currentLine.set(startLine);
-                String[] line;
                 List<Content> batch = new ArrayList<>(BATCH_SIZE);
+                long[] offsets = new long[BATCH_SIZE];
 
-                while ((line = reader.readNext()) != null) {
+                while (reader.next()) {
                     currentLine.incrementAndGet();
-                    try {
-                        // Check if the row contains enough fields
-                        if (line.length < 10) {
-                            logger.warn("Line {}: Insufficient columns ({}/10)", currentLine.get(), line.length);
-                            failCount.incrementAndGet();
-                            continue;
-                        }
-
-                        Content content = parseContent(line, defaultCategory);
-                        if (content != null) {
-                            batch.add(content);
-                            successCount.incrementAndGet();
-                            lastSuccessfulLine.set(currentLine.get());
-                        } else {
-                            failCount.incrementAndGet();
-                        }
-                    } catch (Exception e) {
+                    Content content = parseRow(format.mapper(), reader.row(), defaultCategory, errors,
+                            deadLetters, reader.recordOffset());
+                    if (content != null) {
+                        offsets[batch.size()] = reader.recordOffset();
+                        batch.add(content);
+                        successCount.incrementAndGet();
+                    } else {
                         failCount.incrementAndGet();
-                        logger.warn("Line {}: Parsing failed, reason: {}", currentLine.get(), e.getMessage());
                     }
 
                     // Batch save data
-                    if (batch.size() >= BATCH_SIZE) {
-                        try {
-                            for (Content content : batch) {
-                                contentMapper.insert(content);
-                            }
-                            logger.info("{} records imported", totalProcessed.addAndGet(batch.size()));
-                            batch.clear();
-                        } catch (Exception e) {
-                            logger.error("Failed to batch save data: ", e);
-                            // Record the current position to resume later
-                            logger.info("Last successfully processed line: {}", lastSuccessfulLine.get());
-                            // Retry saving one by one
-                            saveOneByOne(batch);
-                            batch.clear();
+                    if (batch.size() >= pacing.batchSize()) {
+                        commitChunk(sink, checkpointName, new CsvImportPipeline.ParsedChunk(chunkNo++, chunkStartLine,
+                                currentLine.get(), reader.offset(), batch, offsets), null, pacing, progress, errors, deadLetters);
+                        logger.info("{} records imported", totalProcessed.addAndGet(batch.size()));
+                        chunkStartLine = currentLine.get();
+                        batch.clear();
+                        if (!progress.awaitIfPaused()) {
+                            logger.warn("-----File {} import cancelled after line {}-----", fileName, chunkStartLine);
+                            return false;
                         }
                     }
                 }
 
                 // Process the remaining data that doesn't make up a full batch
-                if (!batch.isEmpty()) {
-                    try {
-                        for (Content content : batch) {
-                            contentMapper.insert(content);
-                        }
-                        totalProcessed.addAndGet(batch.size());
-                    } catch (Exception e) {
-                        logger.error("Last batch save failed: ", e);
-                        saveOneByOne(batch);
-                    }
+                if (!batch.isEmpty() || currentLine.get() > chunkStartLine) {
+                    commitChunk(sink, checkpointName, new CsvImportPipeline.ParsedChunk(chunkNo, chunkStartLine,
+                            currentLine.get(), reader.offset(), batch, offsets), null, pacing, progress, errors, deadLetters);
+                    totalProcessed.addAndGet(batch.size());
                 }
 
                 logger.info("-----File {} import completed, successfully: {} records, failed: {} records-----",
                         fileName, successCount.get(), failCount.get());
+                errors.logSummary(logger, fileName);
+                return true;
+            }
+        } catch (IOException e) {
+            logger.error("Error importing file: {}", e.getMessage(), e);
+            logger.info("Last successfully processed line number: {}", progress.lastCommittedLine());
+            return false;
+        }
+    }
 
+    /**
+     * Imports a single CSV file through the staged pipeline: this thread reads raw chunks,
+     * parser workers map them with the format's mapper and writer workers commit them in parallel.
+     * Checkpoints are still committed in read order, so they keep the same meaning as in the sequential import.
+     *
+     * @param format the format of the file
+     * @param sink receives the content of every chunk inside its transaction
+     * @param checkpointName the file name recorded in the checkpoint rows
+     * @param fileName the CSV file name
+     * @param defaultCategory the default category for content
+     * @param startLine the number of lines in front of the start position
+     * @param startOffset the byte offset of the start position, or -1 to skip startLine records from the top
+     * @param progress receives committed chunks; pausing or cancelling it stops the reader
+     * @param deadLetters receives the rows that are rejected or cannot be saved
+     * @return true if the whole file was read and committed
+     */
+    private <S extends RecordScanner> boolean importCsvFileParallel(CatalogFormat<S> format, ContentSink sink,
+                                                                    String checkpointName, String fileName,
+                                                                    Category defaultCategory, int startLine,
+                                                                    long startOffset, ImportProgress progress,
+                                                                    DeadLetterWriter deadLetters) {
+        Path filePath = csvPath(fileName);
+        AtomicInteger totalProcessed = new AtomicInteger(0);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger failCount = new AtomicInteger(0);
+        ImportErrorCounters errors = new ImportErrorCounters();
+        int chunkNo = nextChunkNo(checkpointName, startLine);
+
+        logger.info("Starting to import the file: {}, from line {}, with {} parser and {} writer threads",
+                filePath, startLine, parserThreads, writerThreads);
+
+        ImportThrottle.Run pacing = throttle.start(BATCH_SIZE);
+        CsvImportPipeline.ChunkWriter writer = (chunk, sequencer) -> {
+            commitChunk(sink, checkpointName, chunk, sequencer, pacing, progress, errors, deadLetters);
+            logger.info("{} records imported", totalProcessed.addAndGet(chunk.contents().size()));
+        };
+
+        try (RecordReader<S> reader = openRecordReader(format, filePath, startLine, startOffset);
+             CsvImportPipeline pipeline = new CsvImportPipeline(parserThreads, writerThreads, queueCapacity, chunkNo,
+                     chunk -> parseChunk(format, chunk, defaultCategory, errors, deadLetters, successCount, failCount),
+                     writer)) {
+
+            progress.startFile(fileName, reader.size(), reader.offset());
+
+            // The reader thread only finds record boundaries; parsers tokenize the slices themselves
+            int currentLine = startLine;
+            RecordReader.RecordSlice slice;
+            boolean accepted = true;
+
+            // While paused the reader stops here and the chunks already submitted drain
+            while (accepted && progress.awaitIfPaused() && (slice = reader.nextSlice(pacing.batchSize())) != null) {
+                int chunkStartLine = currentLine;
+                currentLine += slice.records();
+                accepted = pipeline.submit(new CsvImportPipeline.RawChunk(
+                        chunkNo++, chunkStartLine, currentLine, reader.offset(), slice));
+            }
+
+            Throwable failure = pipeline.finish();
+            if (failure != null) {
+                logger.error("-----File {} import aborted, last committed line: {}-----", fileName, progress.lastCommittedLine());
+                return false;
             }
-        } catch (IOException | CsvValidationException e) {
+            if (progress.isCancelled()) {
+                logger.warn("-----File {} import cancelled after line {}-----", fileName, progress.lastCommittedLine());
+                return false;
+            }
+            logger.info("-----File {} import completed, successfully: {} records, failed: {} records-----",
+                    fileName, successCount.get(), failCount.get());
+            errors.logSummary(logger, fileName);
+            return true;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Import of {} interrupted, last committed line: {}", fileName, progress.lastCommittedLine());
+        } catch (IOException e) {
             logger.error("Error importing file: {}", e.getMessage(), e);
-            logger.info("Last successfully processed line number: {}", lastSuccessfulLine.get());
+            logger.info("Last successfully processed line number: {}", progress.lastCommittedLine());
+        }
+        return false;
+    }
+
+    private <S extends RecordScanner> CsvImportPipeline.ParsedChunk parseChunk(
+            CatalogFormat<S> format, CsvImportPipeline.RawChunk chunk, Category defaultCategory,
+            ImportErrorCounters errors, DeadLetterWriter deadLetters,
+            AtomicInteger successCount, AtomicInteger failCount) {
+        List<Content> contents = new ArrayList<>(chunk.slice().records());
+        long[] offsets = new long[chunk.slice().records()];
+        // The slice ends where the chunk ends, which gives the file offset of its first byte
+        long sliceBase = chunk.endOffset() - chunk.slice().bytes().limit();
+        S row = format.scanner(chunk.slice().bytes(), true);
+        while (row.next()) {
+            long sourceOffset = sliceBase + row.recordStart();
+            Content content = parseRow(format.mapper(), row, defaultCategory, errors, deadLetters, sourceOffset);
+            if (content != null) {
+                offsets[contents.size()] = sourceOffset;
+                contents.add(content);
+            }
         }
+        successCount.addAndGet(contents.size());
+        failCount.addAndGet(chunk.slice().records() - contents.size());
+        return new CsvImportPipeline.ParsedChunk(chunk.chunkNo(), chunk.startLine(), chunk.endLine(), chunk.endOffset(),
+                contents, offsets);
+    }
+
+    /**
+     * Opens a record reader at the start position of an import.
+     * With a byte offset the reader seeks straight there, otherwise it skips startLine records from the top.
+     * Line 1 is the header; a format without one starts its data there, so line numbers mean the same in all formats.
+     */
+    private <S extends RecordScanner> RecordReader<S> openRecordReader(CatalogFormat<S> format, Path filePath,
+                                                                       int startLine, long startOffset) throws IOException {
+        if (startOffset >= 0) {
+            return format.open(filePath, startOffset);
+        }
+        RecordReader<S> reader = format.open(filePath, 0);
+        reader.skip(startLine - 1 + format.headerRecords());
+        return reader;
+    }
+
+    /**
+     * Validates and parses a single record.
+     * Problems are counted in {@code errors} and summarized once the file is done;
+     * rejected records are copied to the dead-letter file.
+     *
+     * @param mapper the mapper of the file's format
+     * @param line the scanner positioned at the record
+     * @param defaultCategory the default category for content
+     * @param errors the error counters of the current run
+     * @param deadLetters receives the record if it is rejected
+     * @param sourceOffset the byte offset of the record in the source file
+     * @return the parsed content, or null if the record was rejected
+     */
+    private <S extends RecordScanner> Content parseRow(RecordMapper<S> mapper, S line, Category defaultCategory,
+                                                       ImportErrorCounters errors, DeadLetterWriter deadLetters,
+                                                       long sourceOffset) {
+        try {
+            Content content = mapper.map(line, defaultCategory, errors);
+            if (content == null) {
+                deadLetters.write(mapper.rejection(line), sourceOffset, mapper.deadLetterRecord(line));
+            }
+            return content;
+        } catch (UncheckedIOException e) {
+            throw e;
+        } catch (Exception e) {
+            errors.record(ImportErrorCounters.Issue.PARSE_ERROR);
+            deadLetters.write(ImportErrorCounters.Issue.PARSE_ERROR, sourceOffset, mapper.deadLetterRecord(line));
+            return null;
+        }
+    }
+
+    /**
+     * Commits one chunk of content and its checkpoint row.
+     * The sequential import commits both in one transaction. Parallel writers commit their rows concurrently and
+     * only then wait for their turn to commit the checkpoint, so no writer waits on the sequencer while holding
+     * row locks another writer may need. Checkpoints stay gap-free; rows of a chunk without a checkpoint are upserted
+     * again on resume, which the fingerprint key makes harmless.
+     * Falls back to saving one by one if the chunk cannot be committed as a whole.
+     *
+     * @param sink receives the chunk's content inside the transaction
+     * @param checkpointName the file name recorded in the checkpoint rows
+     * @param chunk the parsed chunk and its position in the file
+     * @param sequencer orders the checkpoints of parallel writers, null for the sequential import
+     * @param pacing the file's throttle, told the commit latency
+     * @param progress receives the committed checkpoint
+     * @param errors the error counters of the current run
+     * @param deadLetters receives the rows that cannot be saved
+     */
+    private void commitChunk(ContentSink sink, String checkpointName, CsvImportPipeline.ParsedChunk chunk,
+                             CommitSequencer sequencer, ImportThrottle.Run pacing, ImportProgress progress,
+                             ImportErrorCounters errors, DeadLetterWriter deadLetters) {
+        int chunkNo = chunk.chunkNo();
+        List<Content> batch = chunk.contents();
+        ImportCheckpoint checkpoint = checkpoint(checkpointName, chunk, batch.size());
+        ImportCheckpoint whole = checkpoint;
+        boolean checkpointed = false;
+        try {
+            long start = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> {
+                sink.write(batch);
+                if (sequencer == null) {
+                    importCheckpointMapper.insert(whole);
+                }
+            });
+            pacing.committed(System.nanoTime() - start);
+            checkpointed = sequencer == null;
+        } catch (Exception e) {
+            logger.error("Failed to commit chunk {} (lines {}-{}): ", chunkNo, chunk.startLine(), chunk.endLine(), e);
+            // Retry saving one by one; the chunk's transaction has been rolled back at this point
+            int saved = saveOneByOne(sink, batch, chunk.sourceOffsets(), errors, deadLetters);
+            checkpoint = checkpoint(checkpointName, chunk, saved);
+        }
+        if (sequencer != null) {
+            sequencer.awaitTurn(chunkNo);
+        }
+        if (!checkpointed) {
+            importCheckpointMapper.insert(checkpoint);
+        }
+        progress.chunkCommitted(chunk.endLine() - chunk.startLine(), checkpoint.getRowCount(), checkpoint);
+        try {
+            pacing.pace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Upserts a list of content with multi-row INSERT ... ON DUPLICATE KEY UPDATE statements
+     * of at most INSERT_CHUNK_SIZE rows, so importing the same file again does not duplicate it.
+     *
+     * @param batch the content to upsert
+     */
+    public void upsertBatch(List<Content> batch) {
+        upsertBatch(CONTENTS_TABLE, batch);
+    }
+
+    private void upsertBatch(String table, List<Content> batch) {
+        for (int from = 0; from < batch.size(); from += INSERT_CHUNK_SIZE) {
+            contentMapper.upsertBatch(table, batch.subList(from, Math.min(from + INSERT_CHUNK_SIZE, batch.size())));
+        }
+    }
+
+    /**
+     * Returns the chunk number a run should continue with.
+     * A run from the top of the file starts again at 0.
+     */
+    private int nextChunkNo(String fileName, int startLine) {
+        if (startLine <= 1) {
+            return 0;
+        }
+        ImportCheckpoint latest = importCheckpointMapper.findLatestByFileName(fileName);
+        return latest != null ? latest.getChunkNo() + 1 : 0;
+    }
+
+    private static String checkpointName(String table, String fileName) {
+        return CONTENTS_TABLE.equals(table) ? fileName : table + "/" + fileName;
+    }
+
+    private ImportCheckpoint checkpoint(String fileName, CsvImportPipeline.ParsedChunk chunk, int rowCount) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setFileName(fileName);
+        checkpoint.setChunkNo(chunk.chunkNo());
+        checkpoint.setStartLine(chunk.startLine());
+        checkpoint.setEndLine(chunk.endLine());
+        checkpoint.setEndOffset(chunk.endOffset());
+        checkpoint.setRowCount(rowCount);
+        checkpoint.setCommittedAt(LocalDateTime.now());
+        return checkpoint;
+    }
+
+    /**
+     * Saves content into contents one by one, for callers whose batch could not be committed as a whole.
+     *
+     * @return the number of records saved
+     * @see #saveOneByOne(ContentSink, List, long[], ImportErrorCounters, DeadLetterWriter)
+     */
+    int saveOneByOne(List<Content> batch, long[] sourceOffsets, ImportErrorCounters errors,
+                     DeadLetterWriter deadLetters) {
+        return saveOneByOne(contents -> upsertBatch(CONTENTS_TABLE, contents), batch, sourceOffsets, errors, deadLetters);
     }
 
     /**
      * Saves content one by one, used as a fallback strategy when batch saving fails.
      * 
+     * Records that still fail are written to the dead-letter file.
+     *
+     * @param sink receives the content one record at a time
      * @param batch the batch of content to save individually
+     * @param sourceOffsets the byte offsets of the records in the source file
+     * @param errors the error counters of the current run
+     * @param deadLetters receives the records that cannot be saved
+     * @return the number of records saved
      */
-    private void saveOneByOne(List<Content> batch) {
+    private int saveOneByOne(ContentSink sink, List<Content> batch, long[] sourceOffsets,
+                             ImportErrorCounters errors, DeadLetterWriter deadLetters) {
         int saved = 0;
-        for (Content content : batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            Content content = batch.get(i);
             try {
-                contentMapper.insert(content);
+                sink.write(Collections.singletonList(content));
                 saved++;
             } catch (Exception e) {
-                logger.warn("Failed to save a single record: {}", e.getMessage());
+                logger.debug("Failed to save a single record: {}", e.getMessage());
+                errors.record(ImportErrorCounters.Issue.DB_ERROR);
+                deadLetters.write(ImportErrorCounters.Issue.DB_ERROR, sourceOffsets[i], content);
             }
         }
         logger.info("Successfully saved {}/{} records in single-save mode", saved, batch.size());
+        return saved;
     }
 
     /**
      * Fixes quotation marks issues in CSV files.
      * Creates a cleaned version of the CSV file with proper quote handling.
+     * The import itself no longer needs this: CsvTokenizer closes open quotes in the same pass.
      * 
      * @param fileName the CSV file to fix
      * @return the path of the fixed file
@@ -264,104 +744,4 @@ public class CsvImportService {
             return null;
         }
     }
-
-    /**
-     * Get the line number of the last successful import
-     */
-    public int getLastSuccessfulLine() {
-        return lastSuccessfulLine.get();
-    }
-
-    /**
-     * Parse CSV row data into a Content object
-     */
-    private Content parseContent(String[] line, Category defaultCategory) {
-
-//        if (line.length < 10) {
-//            logger.warn("Incorrect data row format, insufficient columns: {}", String.join(",", line));
-//            return null;
-//        }
-
-        Content content = new Content();
-
-        // title
-        if (line[0] != null && !line[0].isEmpty()) {
-            content.setTitle(line[0]);
-        } else {
-            logger.warn("Title cannot be empty, skipping row {}", line[0]);
-            return null;
-        }
-
-        // other_title
-        if (line[1] != null && !line[1].isEmpty()) {
-            content.setOtherTitle(line[1]);
-        }
-
-        // country
-        if (line[2] != null && !line[2].isEmpty()) {
-            content.setCountry(line[2]);
-        }
-
-        // language
-        if (line[3] != null && !line[3].isEmpty()) {
-            content.setLanguage(line[3]);
-        }
-
-        // description
-        if (line[4] != null && !line[4].isEmpty()) {
-            content.setDescription(line[4]);
-        }
-
-        // image
-        if (line[5] != null && !line[5].isEmpty()) {
-            content.setImage(line[5]);
-        }
-
-        // release_date
-        if (line[6] != null && !line[6].isEmpty()) {
-            try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-                content.setReleaseDate(LocalDate.parse(line[6], formatter));
-            } catch (DateTimeParseException e) {
-                logger.warn("Incorrect date format: {}", line[6]);
-            }
-        }
-
-        // genre
-        if (line[7] != null && !line[7].isEmpty()) {
-            try {
-                content.setGenre(Genre.valueOf(line[7]));
-            } catch (IllegalArgumentException e) {
-                logger.warn("Unknown genre: {}", line[7]);
-            }
-        }
-
-        // category
-        if (line[8] != null && !line[8].isEmpty()) {
-            try {
-                content.setCategory(Category.valueOf(line[8]));
-            } catch (IllegalArgumentException e) {
-                logger.warn("Unknown category: {}", line[8]);
-                content.setCategory(defaultCategory);
-            }
-        } else {
-            content.setCategory(defaultCategory);
-        }
-
-        // source_type
-        if (line[9] != null && !line[9].isEmpty()) {
-            try {
-                content.setSourceType(SourceType.valueOf(line[9]));
-            } catch (IllegalArgumentException e) {
-                logger.warn("unknown source-type: {}", line[9]);
-                content.setSourceType(SourceType.OFFICIAL_DATA);
-            }
-        } else {
-            content.setSourceType(SourceType.OFFICIAL_DATA);
-        }
-
-        content.setCreatorId(null);
-
-        return content;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A {@link RecordReader} over catalog CSV files, handing out each record as a {@link CsvTokenizer}.
+ */
+final class CsvRecordReader extends RecordReader<CsvTokenizer> {
+
+    private CsvRecordReader(Path path, long offset) throws IOException {
+        super(path, offset, CsvTokenizer::new);
+    }
+
+    /**
+     * Opens a reader positioned at a byte offset that must be a record boundary,
+     * i.e. 0 or an offset previously returned by {@link #offset()}.
+     */
+    static CsvRecordReader open(Path path, long offset) throws IOException {
+        return new CsvRecordReader(path, offset);
+    }
+}
@@ -0,0 +1,277 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-level CSV tokenizer over a buffer, usually a slice of a memory-mapped file.
+ * It only records where each field starts and ends; a field is decoded into a String
+ * when {@link #field(int)} asks for it, so skipped records and unused columns cost no allocation.
+ *
+ * Quoting follows the import's former OpenCSV settings: '"' quotes, '""' and '\"' are literal quotes,
+ * and whitespace in front of an opening quote is ignored. Quoted fields may span lines, and a quote
+ * still open at the end of the input is closed there, which is the repair fixCsvQuotes did in a separate pass.
+ */
+final class CsvTokenizer implements RecordScanner {
+
+    private static final byte QUOTE = '"';
+    private static final byte SEPARATOR = ',';
+    private static final byte ESCAPE = '\\';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final boolean endOfInput;
+    private int position;
+    private int recordStart;
+    // Start of the raw bytes returned by record(), moved past fields dropped by dropLeadingFields
+    private int dataStart;
+    private boolean incomplete;
+
+    // Field layout of the current record; "plain" fields can be decoded without unescaping
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] plain = new boolean[16];
+    private byte[] scratch = new byte[512];
+
+    /**
+     * @param buffer the bytes to tokenize, from its position to its limit
+     * @param endOfInput whether the buffer's limit is the real end of the data; if not, a record
+     *                   running into the limit is reported as incomplete instead of being cut off
+     */
+    CsvTokenizer(ByteBuffer buffer, boolean endOfInput) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.endOfInput = endOfInput;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false at the end of the buffer, or when the next record runs past the buffer's limit
+     *         and more input follows (see {@link #isIncomplete()})
+     */
+    @Override
+    public boolean next() {
+        fieldCount = 0;
+        incomplete = false;
+        recordStart = position;
+        dataStart = position;
+        if (position >= limit) {
+            return false;
+        }
+        int i = position;
+        int fieldStart = i;
+        boolean fieldPlain = true;
+        boolean inQuotes = false;
+
+        while (i < limit) {
+            byte c = buffer.get(i);
+            if (inQuotes) {
+                if (c == ESCAPE && i + 1 < limit && isEscapable(buffer.get(i + 1))) {
+                    i += 2;
+                    continue;
+                }
+                if (c == QUOTE) {
+                    if (i + 1 < limit && buffer.get(i + 1) == QUOTE) {
+                        i += 2;
+                        continue;
+                    }
+                    inQuotes = false;
+                }
+                i++;
+            } else if (c == SEPARATOR) {
+                addField(fieldStart, i, fieldPlain);
+                fieldStart = ++i;
+                fieldPlain = true;
+            } else if (c == LF) {
+                int end = i > fieldStart && buffer.get(i - 1) == CR ? i - 1 : i;
+                addField(fieldStart, end, fieldPlain);
+                position = i + 1;
+                return true;
+            } else {
+                if (c == QUOTE) {
+                    inQuotes = true;
+                    fieldPlain = false;
+                }
+                i++;
+            }
+        }
+
+        if (!endOfInput) {
+            // the record continues beyond this buffer
+            fieldCount = 0;
+            incomplete = true;
+            return false;
+        }
+        // last record without a line break; an open quote is closed here
+        int end = !inQuotes && i > fieldStart && buffer.get(i - 1) == CR ? i - 1 : i;
+        addField(fieldStart, end, fieldPlain);
+        position = limit;
+        return true;
+    }
+
+    /**
+     * Whether the last call to {@link #next()} stopped at a record that continues past the buffer.
+     */
+    @Override
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    /**
+     * Buffer index right after the current record, which is where the next record starts.
+     */
+    @Override
+    public int position() {
+        return position;
+    }
+
+    /**
+     * Buffer index where the current record starts.
+     */
+    @Override
+    public int recordStart() {
+        return recordStart;
+    }
+
+    /**
+     * The raw bytes of the current record, quotes included and line break excluded, without copying.
+     * Fields dropped by {@link #dropLeadingFields(int)} are not part of it.
+     */
+    @Override
+    public ByteBuffer record() {
+        int end = position;
+        while (end > dataStart && (buffer.get(end - 1) == LF || buffer.get(end - 1) == CR)) {
+            end--;
+        }
+        return buffer.slice(dataStart, end - dataStart);
+    }
+
+    /**
+     * Drops the first fields of the current record, so that field 0 is what was field {@code count}.
+     * Used to read records that carry extra leading columns, like the dead-letter file.
+     */
+    void dropLeadingFields(int count) {
+        int dropped = Math.min(count, fieldCount);
+        fieldCount -= dropped;
+        System.arraycopy(starts, dropped, starts, 0, fieldCount);
+        System.arraycopy(ends, dropped, ends, 0, fieldCount);
+        System.arraycopy(plain, dropped, plain, 0, fieldCount);
+        dataStart = fieldCount > 0 ? starts[0] : position;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    boolean isEmpty(int index) {
+        return starts[index] == ends[index];
+    }
+
+    /**
+     * Decodes one field of the current record as UTF-8.
+     *
+     * @return the field value, or null if the field is empty
+     */
+    String field(int index) {
+        int length = decodeField(index);
+        return length == 0 ? null : new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the raw value of a field, without quotes and escapes, into {@link #scratch()}.
+     * Lets callers inspect a field's bytes without creating a String.
+     *
+     * @return the number of bytes written, 0 for an empty field
+     */
+    int decodeField(int index) {
+        int start = starts[index];
+        int length = ends[index] - start;
+        if (length == 0) {
+            return 0;
+        }
+        if (!plain[index]) {
+            return unescape(start, ends[index]);
+        }
+        ensureScratch(length);
+        buffer.get(start, scratch, 0, length);
+        return length;
+    }
+
+    /**
+     * The buffer filled by {@link #decodeField(int)}, overwritten by the next decode.
+     */
+    byte[] scratch() {
+        return scratch;
+    }
+
+    /**
+     * Copies a quoted field into the scratch buffer, dropping quotes and escapes.
+     *
+     * @return the number of bytes written to the scratch buffer
+     */
+    private int unescape(int start, int end) {
+        ensureScratch(end - start);
+        int k = start;
+        // whitespace in front of an opening quote is not part of the value
+        while (k < end && (buffer.get(k) == ' ' || buffer.get(k) == '\t')) {
+            k++;
+        }
+        if (k == end || buffer.get(k) != QUOTE) {
+            k = start;
+        }
+
+        int length = 0;
+        boolean inQuotes = false;
+        for (; k < end; k++) {
+            byte c = buffer.get(k);
+            if (!inQuotes) {
+                if (c == QUOTE) {
+                    inQuotes = true;
+                } else {
+                    scratch[length++] = c;
+                }
+            } else if (c == ESCAPE && k + 1 < end && isEscapable(buffer.get(k + 1))) {
+                scratch[length++] = buffer.get(++k);
+            } else if (c == QUOTE) {
+                if (k + 1 < end && buffer.get(k + 1) == QUOTE) {
+                    scratch[length++] = QUOTE;
+                    k++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c != CR || k + 1 >= end || buffer.get(k + 1) != LF) {
+                // line breaks inside quotes are kept as a bare LF
+                scratch[length++] = c;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isEscapable(byte c) {
+        return c == QUOTE || c == ESCAPE;
+    }
+
+    private void addField(int start, int end, boolean isPlain) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            plain = Arrays.copyOf(plain, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        plain[fieldCount] = isPlain;
+        fieldCount++;
+    }
+
+    private void ensureScratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+    }
+}
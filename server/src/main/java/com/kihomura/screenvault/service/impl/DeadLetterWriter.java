@@ -0,0 +1,159 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.service.impl.ImportErrorCounters.Issue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes rejected import rows to a dead-letter CSV instead of logging them.
+ * Every line is the reason code, the byte offset of the record in the source file and the
+ * 10 catalog columns, so the file can be fixed by hand and imported again with the replay mode.
+ * Rows rejected while parsing are copied byte for byte, or mapped to the catalog columns if their format is not CSV;
+ * rows the database refused are written from their content.
+ * The file is only created once the first row is rejected. Parser and writer threads may share one instance.
+ */
+final class DeadLetterWriter implements Closeable {
+
+    static final int LEADING_COLUMNS = 2;
+    private static final byte[] HEADER = ("reason,source_offset,title,other_title,country,language,description,"
+            + "image,release_date,genre,category,source_type\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EMPTY_COLUMNS =
+            ",".repeat(ContentRowMapper.COLUMN_COUNT - 1).getBytes(StandardCharsets.US_ASCII);
+
+    private final Path path;
+    private final boolean append;
+    private OutputStream out;
+    private long count;
+
+    /**
+     * @param path the dead-letter file
+     * @param append whether to keep the rows of an earlier run, used when an import is resumed
+     */
+    DeadLetterWriter(Path path, boolean append) throws IOException {
+        this.path = path;
+        this.append = append;
+        if (!append) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Writes a record rejected by the parser as it was in the source, or as mapped to catalog columns
+     * by its format. Records that could not be mapped at all are passed as null and only listed by reason and offset.
+     */
+    synchronized void write(Issue reason, long sourceOffset, ByteBuffer record) {
+        try {
+            OutputStream stream = stream();
+            writePrefix(stream, reason, sourceOffset);
+            if (record != null) {
+                Channels.newChannel(stream).write(record.duplicate());
+            } else {
+                stream.write(EMPTY_COLUMNS);
+            }
+            stream.write('\n');
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to " + path, e);
+        }
+    }
+
+    /**
+     * Writes a parsed row that could not be saved.
+     */
+    synchronized void write(Issue reason, long sourceOffset, Content content) {
+        try {
+            OutputStream stream = stream();
+            writePrefix(stream, reason, sourceOffset);
+            writeField(stream, content.getTitle(), true);
+            writeField(stream, content.getOtherTitle(), true);
+            writeField(stream, content.getCountry(), true);
+            writeField(stream, content.getLanguage(), true);
+            writeField(stream, content.getDescription(), true);
+            writeField(stream, content.getImage(), true);
+            writeField(stream, content.getReleaseDate() != null ? content.getReleaseDate().toString() : null, true);
+            writeField(stream, content.getGenre() != null ? content.getGenre().name() : null, true);
+            writeField(stream, content.getCategory() != null ? content.getCategory().name() : null, true);
+            writeField(stream, content.getSourceType() != null ? content.getSourceType().name() : null, false);
+            stream.write('\n');
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write to " + path, e);
+        }
+    }
+
+    /**
+     * Quotes catalog columns as one CSV record, for formats whose rejected records are not CSV themselves.
+     *
+     * @param columns the {@value ContentRowMapper#COLUMN_COUNT} catalog columns, null for empty ones
+     */
+    static ByteBuffer record(String[] columns) {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        try {
+            for (int i = 0; i < columns.length; i++) {
+                writeField(record, columns[i], i < columns.length - 1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ByteBuffer.wrap(record.toByteArray());
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    private OutputStream stream() throws IOException {
+        if (out == null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            boolean header = !append || !Files.exists(path) || Files.size(path) == 0;
+            out = new BufferedOutputStream(Files.newOutputStream(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 64 * 1024);
+            if (header) {
+                out.write(HEADER);
+            }
+        }
+        return out;
+    }
+
+    private static void writePrefix(OutputStream stream, Issue reason, long sourceOffset) throws IOException {
+        stream.write(reason.name().getBytes(StandardCharsets.US_ASCII));
+        stream.write(',');
+        stream.write(Long.toString(sourceOffset).getBytes(StandardCharsets.US_ASCII));
+        stream.write(',');
+    }
+
+    private static void writeField(OutputStream stream, String value, boolean separator) throws IOException {
+        if (value != null) {
+            stream.write('"');
+            // the tokenizer reads \" and \\ as escapes inside quotes, so backslashes are escaped as well
+            stream.write(value.replace("\\", "\\\\").replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+            stream.write('"');
+        }
+        if (separator) {
+            stream.write(',');
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.ImportLease;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.mapper.ImportLeaseMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Imports a CSV file cooperatively from several application instances.
+ * The first node to arrive cuts the file into record-aligned byte ranges and stores them in import_leases;
+ * every node then claims ranges one at a time, imports them in chunks and advances the range's committed
+ * offset in the same transaction as the chunk. Each commit renews the lease; a range whose lease expires
+ * is picked up by another node at its committed offset. Rows are upserted by fingerprint, so a chunk that
+ * is imported twice after a lost lease does not create duplicates.
+ * A chunk that cannot be committed as a whole is saved row by row; the rows that still fail go to the node's
+ * dead-letter file and the range moves on, so a bad row cannot stall a range on every node that takes it over.
+ * All nodes need the same uncompressed file under metadata/: every node seeks straight to the ranges it claims,
+ * and a gzip file would have to be decompressed from its start for each of them.
+ * Chunk sizes and the pause between chunks follow ImportThrottle on every node, like the single-node import.
+ */
+@Service
+public class DistributedImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedImportService.class);
+    private static final int CHUNK_SIZE = 5000;
+
+    @Autowired
+    private ImportLeaseMapper leaseMapper;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImportThrottle throttle;
+
+    // Records per range; ranges should take well under a minute so work spreads evenly
+    @Value("${app.import.distributed.range-records:50000}")
+    private int rangeRecords;
+
+    @Value("${app.import.distributed.lease-seconds:60}")
+    private int leaseSeconds;
+
+    // How long to wait before looking again while other nodes hold all remaining ranges
+    @Value("${app.import.distributed.poll-millis:5000}")
+    private long pollMillis;
+
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    private final ContentRowMapper rowMapper = new ContentRowMapper();
+
+    /**
+     * Takes part in importing both catalog files until all of their ranges are done.
+     */
+    public void importAllData() {
+        try {
+            importCsvFile("tv_shows.csv", Category.TV_SHOW);
+            importCsvFile("movies.csv", Category.MOVIE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Distributed import interrupted on node {}", nodeId);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Error importing file: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Takes part in importing one file; returns once every range of the file is done,
+     * whichever node did it.
+     *
+     * @throws IllegalArgumentException if the file is gzip-compressed
+     */
+    public void importCsvFile(String fileName, Category defaultCategory) throws IOException, InterruptedException {
+        Path filePath = CsvImportService.csvPath(fileName);
+        if (RecordReader.isGzip(filePath)) {
+            throw new IllegalArgumentException("The distributed import cannot seek in " + filePath
+                    + ", decompress it to metadata/" + fileName + " on every node first");
+        }
+        long fileSize = Files.size(filePath);
+        planRanges(filePath, fileName, fileSize);
+        ImportErrorCounters errors = new ImportErrorCounters();
+        ImportThrottle.Run pacing = throttle.start(CHUNK_SIZE);
+        int ranges = 0;
+
+        logger.info("Node {} joins the import of {}", nodeId, fileName);
+        // Appends: rows rejected in ranges this node imported before a restart must not be lost
+        try (DeadLetterWriter deadLetters = new DeadLetterWriter(
+                CsvImportService.deadLetterPath(CsvImportService.CONTENTS_TABLE, fileName), true)) {
+            while (true) {
+                ImportLease lease = leaseMapper.findClaimable(fileName, fileSize);
+                if (lease == null) {
+                    if (leaseMapper.countPending(fileName, fileSize) == 0) {
+                        break;
+                    }
+                    // Other nodes hold the rest; wait in case one of them dies
+                    Thread.sleep(pollMillis);
+                    continue;
+                }
+                if (leaseMapper.claim(lease.getId(), nodeId, leaseSeconds) == 1) {
+                    if (importRange(filePath, lease, defaultCategory, pacing, errors, deadLetters)) {
+                        ranges++;
+                    }
+                }
+            }
+            if (deadLetters.count() > 0) {
+                logger.info("{} rejected rows of {} written to {}", deadLetters.count(), fileName, deadLetters.path());
+            }
+        }
+        logger.info("-----File {} import completed, node {} imported {} ranges-----", fileName, nodeId, ranges);
+        errors.logSummary(logger, fileName);
+    }
+
+    /**
+     * Cuts the file into ranges of rangeRecords records, unless a node did so already.
+     * The cut points come from a full tokenizer pass, so they never fall inside a quoted field.
+     */
+    private void planRanges(Path filePath, String fileName, long fileSize) throws IOException {
+        if (leaseMapper.countRanges(fileName, fileSize) > 0) {
+            return;
+        }
+        List<ImportLease> leases = new ArrayList<>();
+        try (CsvRecordReader reader = CsvRecordReader.open(filePath, 0)) {
+            reader.skip(1); // header
+            long start = reader.offset();
+            while (reader.skip(rangeRecords) > 0) {
+                leases.add(range(fileName, fileSize, leases.size(), start, reader.offset()));
+                start = reader.offset();
+            }
+        }
+        for (int from = 0; from < leases.size(); from += 1000) {
+            leaseMapper.insertRanges(leases.subList(from, Math.min(from + 1000, leases.size())));
+        }
+        logger.info("Planned {} ranges of {} records for {}", leases.size(), rangeRecords, fileName);
+    }
+
+    private static ImportLease range(String fileName, long fileSize, int rangeNo, long start, long end) {
+        ImportLease lease = new ImportLease();
+        lease.setFileName(fileName);
+        lease.setFileSize(fileSize);
+        lease.setRangeNo(rangeNo);
+        lease.setStartOffset(start);
+        lease.setEndOffset(end);
+        lease.setCommittedOffset(start);
+        return lease;
+    }
+
+    /**
+     * Imports a claimed range from its committed offset.
+     *
+     * @return false if the lease was lost to another node before the range was done
+     */
+    private boolean importRange(Path filePath, ImportLease lease, Category defaultCategory, ImportThrottle.Run pacing,
+                                ImportErrorCounters errors, DeadLetterWriter deadLetters)
+            throws IOException, InterruptedException {
+        long end = lease.getEndOffset();
+        logger.info("Node {} imports range {} of {} from offset {}",
+                nodeId, lease.getRangeNo(), lease.getFileName(), lease.getCommittedOffset());
+
+        try (CsvRecordReader reader = CsvRecordReader.open(filePath, lease.getCommittedOffset())) {
+            List<Content> batch = new ArrayList<>(CHUNK_SIZE);
+            long[] offsets = new long[CHUNK_SIZE];
+            while (reader.offset() < end) {
+                long recordOffset = reader.offset();
+                if (!reader.next()) {
+                    break;
+                }
+                Content content = parseRow(reader.row(), defaultCategory, errors);
+                if (content != null) {
+                    offsets[batch.size()] = recordOffset;
+                    batch.add(content);
+                }
+                if (batch.size() >= pacing.batchSize() && reader.offset() < end) {
+                    if (!commit(lease, batch, offsets, reader.offset(), false, pacing, errors, deadLetters)) {
+                        return false;
+                    }
+                    batch.clear();
+                    pacing.pace();
+                }
+            }
+            return commit(lease, batch, offsets, end, true, pacing, errors, deadLetters);
+        }
+    }
+
+    /**
+     * Upserts a chunk and advances the range checkpoint in one transaction.
+     * Rolls back if another node has taken over the range in the meantime.
+     * If the chunk fails, its rows are saved one by one and the checkpoint is advanced past them regardless,
+     * like CsvImportService does; rows that still fail are written to the dead-letter file.
+     */
+    private boolean commit(ImportLease lease, List<Content> batch, long[] offsets, long committedOffset,
+                           boolean done, ImportThrottle.Run pacing, ImportErrorCounters errors,
+                           DeadLetterWriter deadLetters) {
+        Boolean owned;
+        try {
+            long start = System.nanoTime();
+            owned = transactionTemplate.execute(status -> {
+                csvImportService.upsertBatch(batch);
+                if (leaseMapper.advance(lease.getId(), nodeId, committedOffset, leaseSeconds, done) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            pacing.committed(System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.error("Failed to commit a chunk of range {} of {} before offset {}: ",
+                    lease.getRangeNo(), lease.getFileName(), committedOffset, e);
+            // The chunk's transaction has been rolled back; upserts are idempotent if the lease is gone meanwhile
+            csvImportService.saveOneByOne(batch, offsets, errors, deadLetters);
+            owned = leaseMapper.advance(lease.getId(), nodeId, committedOffset, leaseSeconds, done) == 1;
+        }
+        if (!Boolean.TRUE.equals(owned)) {
+            logger.warn("Node {} lost the lease of range {} of {}", nodeId, lease.getRangeNo(), lease.getFileName());
+            return false;
+        }
+        return true;
+    }
+
+    private Content parseRow(CsvTokenizer row, Category defaultCategory, ImportErrorCounters errors) {
+        try {
+            return rowMapper.map(row, defaultCategory, errors);
+        } catch (Exception e) {
+            errors.record(ImportErrorCounters.Issue.PARSE_ERROR);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Resolves enum constants from raw field bytes by exact name, without creating a String
+ * and without the exception-driven fallback of {@code Enum.valueOf}.
+ * Names are placed in an open-addressing table keyed by a hash of their bytes.
+ */
+final class EnumLookup<E extends Enum<E>> {
+
+    private final byte[][] names;
+    private final Object[] constants;
+    private final int mask;
+
+    EnumLookup(Class<E> enumClass) {
+        E[] values = enumClass.getEnumConstants();
+        int size = Integer.highestOneBit(Math.max(values.length, 1) * 4);
+        this.names = new byte[size][];
+        this.constants = new Object[size];
+        this.mask = size - 1;
+        for (E value : values) {
+            byte[] name = value.name().getBytes(StandardCharsets.US_ASCII);
+            int slot = hash(name, name.length) & mask;
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            constants[slot] = value;
+        }
+    }
+
+    /**
+     * @param bytes the field value
+     * @param length the number of valid bytes
+     * @return the constant with exactly that name, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    E find(byte[] bytes, int length) {
+        int slot = hash(bytes, length) & mask;
+        byte[] name;
+        while ((name = names[slot]) != null) {
+            if (Arrays.equals(name, 0, name.length, bytes, 0, length)) {
+                return (E) constants[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int hash(byte[] bytes, int length) {
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ bytes[i]) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,215 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.FacetFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable facet index of the official catalog: for each genre, category, country, language and release year,
+ * an IdBitmap of the contents that have it.
+ * <p>
+ * A browse ORs the bitmaps of the values selected within each facet, then ANDs the facets, so it costs the same
+ * whatever the combination and never looks at a content row. The count of a value is the size of its bitmap
+ * ANDed with the filters of the other facets, which is what selecting it as well would return; the facet's own
+ * filter is left out so that the alternatives to a selected value keep their counts.
+ */
+final class FacetIndex {
+
+    static final String GENRE = "genre";
+    static final String CATEGORY = "category";
+    static final String COUNTRY = "country";
+    static final String LANGUAGE = "language";
+    static final String YEAR = "year";
+
+    private static final String[] FACETS = {GENRE, CATEGORY, COUNTRY, LANGUAGE, YEAR};
+    private static final int YEAR_FACET = 4;
+
+    private final IdBitmap all;
+    // per facet, in FACETS order, the contents of each value
+    private final List<Map<String, IdBitmap>> facets;
+
+    private FacetIndex(IdBitmap all, List<Map<String, IdBitmap>> facets) {
+        this.all = all;
+        this.facets = facets;
+    }
+
+    int size() {
+        return all.cardinality();
+    }
+
+    /**
+     * @param filter the values to narrow to
+     * @param afterId the last id of the previous page, or 0 for the first page
+     * @param limit the number of ids to return
+     * @return the ids of the matching contents after afterId, in id order, with the total and the facet counts
+     */
+    Result browse(FacetFilter filter, int afterId, int limit) {
+        IdBitmap[] selections = {
+                union(0, filter.getGenres()),
+                union(1, filter.getCategories()),
+                union(2, filter.getCountries()),
+                union(3, filter.getLanguages()),
+                yearUnion(filter.getYearFrom(), filter.getYearTo())
+        };
+        IdBitmap matches = intersect(selections, -1);
+
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (int f = 0; f < FACETS.length; f++) {
+            IdBitmap others = intersect(selections, f);
+            if (others != all) {
+                others = others.expanded();
+            }
+            List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+            for (Map.Entry<String, IdBitmap> value : facets.get(f).entrySet()) {
+                int count = others == all ? value.getValue().cardinality() : value.getValue().andCardinality(others);
+                if (count > 0) {
+                    entries.add(Map.entry(value.getKey(), count));
+                }
+            }
+            entries.sort(f == YEAR_FACET
+                    ? Comparator.comparing((Map.Entry<String, Integer> e) -> Integer.parseInt(e.getKey())).reversed()
+                    : Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> facetCounts = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : entries) {
+                facetCounts.put(entry.getKey(), entry.getValue());
+            }
+            counts.put(FACETS[f], facetCounts);
+        }
+        return new Result(matches.page(afterId, limit), matches.cardinality(), counts);
+    }
+
+    /**
+     * @return the union of the bitmaps of the given values of a facet, or null if none are given
+     */
+    private IdBitmap union(int facet, Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        List<IdBitmap> bitmaps = new ArrayList<>();
+        for (String value : new HashSet<>(values)) {
+            IdBitmap bitmap = facets.get(facet).get(value);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return IdBitmap.or(bitmaps);
+    }
+
+    private IdBitmap yearUnion(Integer from, Integer to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        List<IdBitmap> bitmaps = new ArrayList<>();
+        for (Map.Entry<String, IdBitmap> year : facets.get(YEAR_FACET).entrySet()) {
+            int value = Integer.parseInt(year.getKey());
+            if ((from == null || value >= from) && (to == null || value <= to)) {
+                bitmaps.add(year.getValue());
+            }
+        }
+        return IdBitmap.or(bitmaps);
+    }
+
+    /**
+     * @return the intersection of the selections other than the excluded facet, smallest first, or all contents
+     */
+    private IdBitmap intersect(IdBitmap[] selections, int excluded) {
+        List<IdBitmap> operands = new ArrayList<>();
+        for (int f = 0; f < selections.length; f++) {
+            if (f != excluded && selections[f] != null) {
+                operands.add(selections[f]);
+            }
+        }
+        if (operands.isEmpty()) {
+            return all;
+        }
+        operands.sort(Comparator.comparingInt(IdBitmap::cardinality));
+        IdBitmap result = operands.get(0);
+        for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+            result = result.and(operands.get(i));
+        }
+        return result;
+    }
+
+    static final class Result {
+
+        final int[] ids;
+        final int total;
+        final Map<String, Map<String, Integer>> counts;
+
+        Result(int[] ids, int total, Map<String, Map<String, Integer>> counts) {
+            this.ids = ids;
+            this.total = total;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * Collects contents in ascending id order.
+     */
+    static final class Builder {
+
+        private final IdList all = new IdList();
+        private final List<Map<String, IdList>> facets = new ArrayList<>();
+
+        Builder() {
+            for (int f = 0; f < FACETS.length; f++) {
+                facets.add(new HashMap<>());
+            }
+        }
+
+        /**
+         * @param id a content id greater than the previous one
+         * @param genre the Genre constant name, or null
+         * @param category the Category constant name, or null
+         * @param year the release year, or null
+         */
+        void add(int id, String genre, String category, String country, String language, Integer year) {
+            if (all.count > 0 && id <= all.ids[all.count - 1]) {
+                throw new IllegalArgumentException("ids must be ascending: " + id);
+            }
+            all.add(id);
+            add(0, genre, id);
+            add(1, category, id);
+            add(2, country, id);
+            add(3, language, id);
+            add(YEAR_FACET, year != null ? year.toString() : null, id);
+        }
+
+        private void add(int facet, String value, int id) {
+            if (value != null && !value.isBlank()) {
+                facets.get(facet).computeIfAbsent(value, v -> new IdList()).add(id);
+            }
+        }
+
+        FacetIndex build() {
+            List<Map<String, IdBitmap>> bitmaps = new ArrayList<>(facets.size());
+            for (Map<String, IdList> facet : facets) {
+                Map<String, IdBitmap> values = new HashMap<>();
+                facet.forEach((value, ids) -> values.put(value, IdBitmap.of(ids.ids, ids.count)));
+                bitmaps.add(values);
+            }
+            return new FacetIndex(IdBitmap.of(all.ids, all.count), bitmaps);
+        }
+    }
+
+    private static final class IdList {
+
+        private int[] ids = new int[16];
+        private int count;
+
+        void add(int id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+    }
+}
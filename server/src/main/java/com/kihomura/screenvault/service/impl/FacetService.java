@@ -0,0 +1,89 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.entity.FacetFilter;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+
+/**
+ * Faceted browsing of the official catalog from an in-memory FacetIndex.
+ * Like SuggestService, the index is built on a background thread once the application is ready and replaced
+ * as a whole by every rebuild, after in-app imports and every app.search.facets.refresh-minutes. Custom contents
+ * are not part of it. Until the first build has finished, {@link #browse} returns null.
+ */
+@Service
+public class FacetService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final IndexRebuilder rebuilder;
+
+    // immutable, replaced as a whole by every rebuild
+    private volatile FacetIndex index;
+
+    public FacetService(@Value("${app.search.facets.enabled:true}") boolean enabled,
+                        @Value("${app.search.facets.refresh-minutes:60}") long refreshMinutes) {
+        this.rebuilder = new IndexRebuilder("facet-index", enabled, refreshMinutes, this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilder.start();
+    }
+
+    /**
+     * Schedules a rebuild, e.g. after an import changed the catalog.
+     */
+    public void refresh() {
+        rebuilder.refresh();
+    }
+
+    /**
+     * @param filter the facet values to narrow to
+     * @param afterId the last id of the previous page, or 0 for the first page
+     * @param limit the number of ids to return
+     * @return the matching ids after afterId with the total and facet counts, or null while the index is not built yet
+     */
+    FacetIndex.Result browse(FacetFilter filter, int afterId, int limit) {
+        FacetIndex current = index;
+        return current != null ? current.browse(filter, afterId, limit) : null;
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            FacetIndex.Builder builder = new FacetIndex.Builder();
+            IndexRebuilder.stream(transactionManager, contentMapper::streamFacets, content ->
+                    builder.add(content.getId(),
+                            content.getGenre() != null ? content.getGenre().name() : null,
+                            content.getCategory() != null ? content.getCategory().name() : null,
+                            content.getCountry(), content.getLanguage(),
+                            content.getReleaseDate() != null ? content.getReleaseDate().getYear() : null));
+            FacetIndex rebuilt = builder.build();
+            index = rebuilt;
+            logger.info("Facet index built with {} contents in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Building the facet index failed: ", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+}
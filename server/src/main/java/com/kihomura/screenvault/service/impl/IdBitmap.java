@@ -0,0 +1,334 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable compressed set of content ids, laid out like a Roaring bitmap.
+ * <p>
+ * Ids are split by their high 16 bits into chunks. A chunk with at most {@link #ARRAY_LIMIT} ids stores their
+ * low 16 bits as a sorted char array, two bytes per id; a denser chunk stores a bitmap of 1024 longs, 8 KB
+ * whatever its count. Intersections and unions work chunk by chunk and only on the chunks both sides have,
+ * so a rare value costs little even against a value every content has.
+ */
+final class IdBitmap {
+
+    static final IdBitmap EMPTY = new IdBitmap(new char[0], new Object[0], 0);
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // per chunk, ascending: the high 16 bits, and a char[] or long[] of the low 16 bits
+    private final char[] keys;
+    private final Object[] chunks;
+    private final int cardinality;
+
+    private IdBitmap(char[] keys, Object[] chunks, int count) {
+        this.keys = count == keys.length ? keys : Arrays.copyOf(keys, count);
+        this.chunks = count == chunks.length ? chunks : Arrays.copyOf(chunks, count);
+        int total = 0;
+        for (Object chunk : this.chunks) {
+            total += cardinality(chunk);
+        }
+        this.cardinality = total;
+    }
+
+    /**
+     * @param ids non-negative ids in ascending order, without repetitions
+     * @param count the number of ids to take
+     */
+    static IdBitmap of(int[] ids, int count) {
+        char[] keys = new char[count > 0 ? (ids[count - 1] >>> 16) - (ids[0] >>> 16) + 1 : 0];
+        Object[] chunks = new Object[keys.length];
+        int chunkCount = 0;
+        int start = 0;
+        while (start < count) {
+            int high = ids[start] >>> 16;
+            int end = start;
+            while (end < count && ids[end] >>> 16 == high) {
+                end++;
+            }
+            keys[chunkCount] = (char) high;
+            if (end - start <= ARRAY_LIMIT) {
+                char[] values = new char[end - start];
+                for (int i = start; i < end; i++) {
+                    values[i - start] = (char) ids[i];
+                }
+                chunks[chunkCount++] = values;
+            } else {
+                long[] words = new long[BITMAP_WORDS];
+                for (int i = start; i < end; i++) {
+                    words[(ids[i] & 0xffff) >>> 6] |= 1L << ids[i];
+                }
+                chunks[chunkCount++] = words;
+            }
+            start = end;
+        }
+        return new IdBitmap(keys, chunks, chunkCount);
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    IdBitmap and(IdBitmap other) {
+        char[] resultKeys = new char[Math.min(keys.length, other.keys.length)];
+        Object[] resultChunks = new Object[resultKeys.length];
+        int count = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object chunk = and(chunks[i], other.chunks[j]);
+                if (chunk != null) {
+                    resultKeys[count] = keys[i];
+                    resultChunks[count++] = chunk;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new IdBitmap(resultKeys, resultChunks, count);
+    }
+
+    /**
+     * @return the union of all the bitmaps, built in one pass instead of one intermediate bitmap per operand
+     */
+    static IdBitmap or(List<IdBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) {
+            return EMPTY;
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        // one accumulator per chunk key present in any operand
+        Map<Character, long[]> accumulators = new TreeMap<>();
+        for (IdBitmap bitmap : bitmaps) {
+            for (int c = 0; c < bitmap.keys.length; c++) {
+                long[] words = accumulators.computeIfAbsent(bitmap.keys[c], key -> new long[BITMAP_WORDS]);
+                if (bitmap.chunks[c] instanceof char[] values) {
+                    for (char value : values) {
+                        words[value >>> 6] |= 1L << value;
+                    }
+                } else {
+                    long[] other = (long[]) bitmap.chunks[c];
+                    for (int w = 0; w < BITMAP_WORDS; w++) {
+                        words[w] |= other[w];
+                    }
+                }
+            }
+        }
+        char[] keys = new char[accumulators.size()];
+        Object[] chunks = new Object[keys.length];
+        int count = 0;
+        for (Map.Entry<Character, long[]> accumulator : accumulators.entrySet()) {
+            long[] words = accumulator.getValue();
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            keys[count] = accumulator.getKey();
+            chunks[count++] = cardinality <= ARRAY_LIMIT ? toArray(words, cardinality) : words;
+        }
+        return new IdBitmap(keys, chunks, count);
+    }
+
+    /**
+     * @return the same ids with every chunk stored as a bitmap, for use as the fixed side of many
+     * {@link #andCardinality} calls: each id of an array chunk is then a single lookup instead of a merge step
+     */
+    IdBitmap expanded() {
+        Object[] expandedChunks = new Object[chunks.length];
+        for (int c = 0; c < chunks.length; c++) {
+            if (chunks[c] instanceof char[] values) {
+                long[] words = new long[BITMAP_WORDS];
+                for (char value : values) {
+                    words[value >>> 6] |= 1L << value;
+                }
+                expandedChunks[c] = words;
+            } else {
+                expandedChunks[c] = chunks[c];
+            }
+        }
+        return new IdBitmap(keys, expandedChunks, keys.length);
+    }
+
+    /**
+     * @return the size of the intersection, without building it
+     */
+    int andCardinality(IdBitmap other) {
+        int total = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                total += andCardinality(chunks[i++], other.chunks[j++]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return up to limit ids greater than afterId, in ascending order
+     */
+    int[] page(int afterId, int limit) {
+        int[] ids = new int[Math.min(limit, cardinality)];
+        int count = 0;
+        int from = afterId + 1;
+        for (int c = 0; c < keys.length && count < ids.length; c++) {
+            int high = keys[c] << 16;
+            if (high + 0xffff < from) {
+                continue;
+            }
+            int low = Math.max(0, from - high);
+            Object chunk = chunks[c];
+            if (chunk instanceof char[] values) {
+                for (int k = lowerBound(values, low); k < values.length && count < ids.length; k++) {
+                    ids[count++] = high | values[k];
+                }
+            } else {
+                long[] words = (long[]) chunk;
+                for (int w = low >>> 6; w < BITMAP_WORDS && count < ids.length; w++) {
+                    long word = words[w];
+                    if (w == low >>> 6) {
+                        word &= -1L << low;
+                    }
+                    while (word != 0 && count < ids.length) {
+                        ids[count++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static Object and(Object a, Object b) {
+        if (a instanceof char[] values) {
+            return and(values, b);
+        }
+        if (b instanceof char[] values) {
+            return and(values, a);
+        }
+        long[] x = (long[]) a;
+        long[] y = (long[]) b;
+        long[] words = new long[BITMAP_WORDS];
+        int count = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] = x[w] & y[w];
+            count += Long.bitCount(words[w]);
+        }
+        return count == 0 ? null : count <= ARRAY_LIMIT ? toArray(words, count) : words;
+    }
+
+    private static Object and(char[] values, Object other) {
+        char[] result = new char[values.length];
+        int count = 0;
+        if (other instanceof char[] otherValues) {
+            for (int i = 0, j = 0; i < values.length && j < otherValues.length; ) {
+                if (values[i] < otherValues[j]) {
+                    i++;
+                } else if (values[i] > otherValues[j]) {
+                    j++;
+                } else {
+                    result[count++] = values[i];
+                    i++;
+                    j++;
+                }
+            }
+        } else {
+            long[] words = (long[]) other;
+            for (char value : values) {
+                if ((words[value >>> 6] & (1L << value)) != 0) {
+                    result[count++] = value;
+                }
+            }
+        }
+        return count == 0 ? null : Arrays.copyOf(result, count);
+    }
+
+    private static int andCardinality(Object a, Object b) {
+        if (a instanceof char[] || b instanceof char[]) {
+            char[] values = a instanceof char[] x ? x : (char[]) b;
+            Object other = values == a ? b : a;
+            if (other instanceof char[] otherValues) {
+                int count = 0;
+                for (int i = 0, j = 0; i < values.length && j < otherValues.length; ) {
+                    if (values[i] < otherValues[j]) {
+                        i++;
+                    } else if (values[i] > otherValues[j]) {
+                        j++;
+                    } else {
+                        count++;
+                        i++;
+                        j++;
+                    }
+                }
+                return count;
+            }
+            long[] words = (long[]) other;
+            int count = 0;
+            for (char value : values) {
+                if ((words[value >>> 6] & (1L << value)) != 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        long[] x = (long[]) a;
+        long[] y = (long[]) b;
+        int count = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            count += Long.bitCount(x[w] & y[w]);
+        }
+        return count;
+    }
+
+    private static int cardinality(Object chunk) {
+        if (chunk instanceof char[] values) {
+            return values.length;
+        }
+        int count = 0;
+        for (long word : (long[]) chunk) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static char[] toArray(long[] words, int count) {
+        char[] values = new char[count];
+        int k = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                values[k++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return values;
+    }
+
+    private static int lowerBound(char[] values, int target) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
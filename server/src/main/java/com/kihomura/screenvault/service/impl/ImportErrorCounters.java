@@ -0,0 +1,71 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts rejected rows and defaulted fields of one import run per issue,
+ * replacing the warning log line per bad value. Parser threads update it concurrently;
+ * the first offending value of each issue is kept as a sample for the summary.
+ */
+class ImportErrorCounters {
+
+    enum Issue {
+        // rows that are rejected
+        INSUFFICIENT_COLUMNS,
+        EMPTY_TITLE,
+        PARSE_ERROR,
+        // rows that parsed but could not be saved, even one by one
+        DB_ERROR,
+        // fields that are dropped or defaulted, the row is still imported
+        BAD_RELEASE_DATE,
+        UNKNOWN_GENRE,
+        UNKNOWN_CATEGORY,
+        UNKNOWN_SOURCE_TYPE
+    }
+
+    private final Map<Issue, LongAdder> counts = new EnumMap<>(Issue.class);
+    private final Map<Issue, String> samples = new ConcurrentHashMap<>();
+
+    ImportErrorCounters() {
+        for (Issue issue : Issue.values()) {
+            counts.put(issue, new LongAdder());
+        }
+    }
+
+    void record(Issue issue) {
+        counts.get(issue).increment();
+    }
+
+    /**
+     * Counts an issue and keeps the value if it is the first one seen for that issue.
+     */
+    void record(Issue issue, byte[] value, int length) {
+        counts.get(issue).increment();
+        if (!samples.containsKey(issue)) {
+            samples.putIfAbsent(issue, new String(value, 0, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    long count(Issue issue) {
+        return counts.get(issue).sum();
+    }
+
+    /**
+     * Logs one line per issue that occurred during the run.
+     */
+    void logSummary(Logger logger, String fileName) {
+        for (Issue issue : Issue.values()) {
+            long count = count(issue);
+            if (count > 0) {
+                logger.warn("File {}: {} x {}{}", fileName, count, issue,
+                        samples.containsKey(issue) ? ", e.g. '" + samples.get(issue) + "'" : "");
+            }
+        }
+    }
+}
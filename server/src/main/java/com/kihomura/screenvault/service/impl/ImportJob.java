@@ -0,0 +1,112 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.ImportCheckpoint;
+
+import java.time.LocalDateTime;
+
+/**
+ * A background import run and its live progress. Serialized as the status of the import job API.
+ */
+public class ImportJob {
+
+    public enum Type {
+        // Imports both catalog files from the top
+        IMPORT_ALL,
+        // Continues one file after its last checkpoint
+        RESUME
+    }
+
+    public enum State {
+        QUEUED, RUNNING, PAUSED, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final long id;
+    private final Type type;
+    private final String fileName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final ImportProgress progress = new ImportProgress();
+    private volatile State state = State.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    ImportJob(long id, Type type, String fileName) {
+        this.id = id;
+        this.type = type;
+        this.fileName = fileName;
+    }
+
+    void started() {
+        startedAt = LocalDateTime.now();
+        state = State.RUNNING;
+    }
+
+    void finished(State state) {
+        this.finishedAt = LocalDateTime.now();
+        this.state = state;
+    }
+
+    ImportProgress progress() {
+        return progress;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public State getState() {
+        State current = state;
+        return current == State.RUNNING && progress.isPaused() ? State.PAUSED : current;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getCurrentFile() {
+        return progress.getFileName();
+    }
+
+    public long getRowsImported() {
+        return progress.getRowsImported();
+    }
+
+    public long getRowsFailed() {
+        return progress.getRowsFailed();
+    }
+
+    public long getRowsPerSecond() {
+        return Math.round(progress.getRowsPerSecond());
+    }
+
+    public long getEtaSeconds() {
+        return isFinished() ? 0 : progress.getEtaSeconds();
+    }
+
+    public double getFileFraction() {
+        return progress.getFileFraction();
+    }
+
+    public ImportCheckpoint getCheckpoint() {
+        return progress.getLastCheckpoint();
+    }
+}
@@ -0,0 +1,183 @@
+package com.kihomura.screenvault.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs CSV imports as background jobs while the application keeps serving requests.
+ * Jobs run one at a time on a dedicated low-priority thread with a short bounded queue,
+ * so an import never occupies request threads and never runs twice concurrently.
+ * Job state lives in memory; the durable record of a run are its import_checkpoints rows.
+ */
+@Service
+public class ImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+    private static final int MAX_FINISHED_JOBS = 50;
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private TitleSearchService titleSearchService;
+
+    @Autowired
+    private TextSearchService textSearchService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private SuggestService suggestService;
+
+    private final Map<Long, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ThreadPoolExecutor executor;
+
+    public ImportJobService(@Value("${app.import.job-queue-capacity:2}") int queueCapacity) {
+        AtomicInteger count = new AtomicInteger(0);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "import-job-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a new import job.
+     *
+     * @param type the kind of import
+     * @param fileName the CSV file of a RESUME job, ignored otherwise
+     * @return the queued job
+     * @throws IllegalArgumentException if a RESUME job names no known catalog file
+     * @throws IllegalStateException if the job queue is full
+     */
+    public ImportJob start(ImportJob.Type type, String fileName) {
+        if (type == ImportJob.Type.RESUME && !"movies.csv".equals(fileName) && !"tv_shows.csv".equals(fileName)) {
+            throw new IllegalArgumentException("Unknown catalog file: " + fileName);
+        }
+        ImportJob job = new ImportJob(nextId.getAndIncrement(), type,
+                type == ImportJob.Type.RESUME ? fileName : null);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new IllegalStateException("Too many import jobs queued");
+        }
+        evictFinishedJobs();
+        logger.info("Queued import job {} ({})", job.getId(), type);
+        return job;
+    }
+
+    private void run(ImportJob job) {
+        if (job.progress().isCancelled()) {
+            job.finished(ImportJob.State.CANCELLED);
+            return;
+        }
+        job.started();
+        logger.info("Starting import job {}", job.getId());
+        boolean complete;
+        try {
+            complete = switch (job.getType()) {
+                case IMPORT_ALL -> csvImportService.importAllData(job.progress());
+                case RESUME -> csvImportService.resumeImport(job.getFileName(), job.progress());
+            };
+        } catch (Exception e) {
+            logger.error("Import job {} failed: ", job.getId(), e);
+            complete = false;
+        }
+        ImportJob.State state = complete ? ImportJob.State.SUCCEEDED
+                : job.progress().isCancelled() ? ImportJob.State.CANCELLED : ImportJob.State.FAILED;
+        job.finished(state);
+        logger.info("Import job {} finished: {}", job.getId(), state);
+        // committed batches are in the table whether or not the job completed
+        titleSearchService.refresh();
+        textSearchService.refresh();
+        facetService.refresh();
+        suggestService.refresh();
+    }
+
+    public ImportJob find(long id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * @return all known jobs, newest first
+     */
+    public List<ImportJob> findAll() {
+        List<ImportJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparingLong(ImportJob::getId).reversed());
+        return all;
+    }
+
+    /**
+     * Pauses a job after its current chunk is committed.
+     *
+     * @return the job, or null if it does not exist or has finished
+     */
+    public ImportJob pause(long id) {
+        ImportJob job = activeJob(id);
+        if (job != null) {
+            job.progress().pause();
+        }
+        return job;
+    }
+
+    public ImportJob resume(long id) {
+        ImportJob job = activeJob(id);
+        if (job != null) {
+            job.progress().resume();
+        }
+        return job;
+    }
+
+    /**
+     * Cancels a job after its current chunk is committed. It can be continued later with a RESUME job.
+     *
+     * @return the job, or null if it does not exist or has finished
+     */
+    public ImportJob cancel(long id) {
+        ImportJob job = activeJob(id);
+        if (job != null) {
+            job.progress().cancel();
+        }
+        return job;
+    }
+
+    private ImportJob activeJob(long id) {
+        ImportJob job = jobs.get(id);
+        return job != null && !job.isFinished() ? job : null;
+    }
+
+    private void evictFinishedJobs() {
+        List<ImportJob> finished = findAll().stream().filter(ImportJob::isFinished).toList();
+        for (int i = MAX_FINISHED_JOBS; i < finished.size(); i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> job.progress().cancel());
+        executor.shutdown();
+    }
+}
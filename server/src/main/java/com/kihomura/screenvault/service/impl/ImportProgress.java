@@ -0,0 +1,171 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.ImportCheckpoint;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress and control of one import run.
+ * The import reports every committed chunk here and checks for pause and cancel requests
+ * between chunks, so a paused or cancelled import always stops right after a checkpoint.
+ * Rates exclude the time spent paused.
+ */
+public class ImportProgress {
+
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+    private volatile boolean cancelled;
+
+    private final LongAdder rowsImported = new LongAdder();
+    private final LongAdder rowsFailed = new LongAdder();
+    private volatile ImportCheckpoint lastCheckpoint;
+    private volatile int lastCommittedLine;
+
+    private volatile String fileName;
+    private volatile long fileBytes;
+    private volatile long fileStartOffset;
+    private volatile long bytesDone;
+    private volatile long fileStartNanos;
+
+    private final long startNanos = System.nanoTime();
+    private volatile long pausedNanos;
+    private volatile long fileStartPausedNanos;
+
+    /**
+     * Called when the import opens a file.
+     *
+     * @param fileName the CSV file name
+     * @param fileBytes the size of the file
+     * @param startOffset the byte offset the import starts at
+     */
+    void startFile(String fileName, long fileBytes, long startOffset) {
+        this.fileName = fileName;
+        this.fileBytes = fileBytes;
+        this.fileStartOffset = startOffset;
+        this.bytesDone = startOffset;
+        this.fileStartNanos = System.nanoTime();
+        this.fileStartPausedNanos = pausedNanos;
+        this.lastCommittedLine = 0;
+    }
+
+    /**
+     * Called after a chunk and its checkpoint were committed, in chunk order.
+     *
+     * @param records the records the chunk covered
+     * @param saved the rows saved from them
+     * @param checkpoint the checkpoint committed with the chunk
+     */
+    void chunkCommitted(int records, int saved, ImportCheckpoint checkpoint) {
+        rowsImported.add(saved);
+        rowsFailed.add(records - saved);
+        if (checkpoint.getEndOffset() != null) {
+            bytesDone = checkpoint.getEndOffset();
+        }
+        lastCheckpoint = checkpoint;
+        lastCommittedLine = checkpoint.getEndLine();
+    }
+
+    /**
+     * @return the end line of the last chunk committed in the current file, 0 before the first
+     */
+    int lastCommittedLine() {
+        return lastCommittedLine;
+    }
+
+    /**
+     * Blocks while the import is paused.
+     *
+     * @return false if the import was cancelled and should stop
+     */
+    boolean awaitIfPaused() {
+        if (!paused) {
+            return !cancelled;
+        }
+        synchronized (pauseLock) {
+            long pausedAt = System.nanoTime();
+            try {
+                while (paused && !cancelled) {
+                    pauseLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            } finally {
+                pausedNanos += System.nanoTime() - pausedAt;
+            }
+        }
+        return !cancelled;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    public void cancel() {
+        synchronized (pauseLock) {
+            cancelled = true;
+            pauseLock.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getRowsImported() {
+        return rowsImported.sum();
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed.sum();
+    }
+
+    public ImportCheckpoint getLastCheckpoint() {
+        return lastCheckpoint;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return imported and failed rows per second of active time
+     */
+    public double getRowsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos - pausedNanos) / 1_000_000_000.0;
+        return seconds > 0 ? (getRowsImported() + getRowsFailed()) / seconds : 0;
+    }
+
+    /**
+     * Estimates the remaining time of the current file from its byte rate so far.
+     *
+     * @return the estimate in seconds, or -1 while there is nothing to base it on
+     */
+    public long getEtaSeconds() {
+        long done = bytesDone - fileStartOffset;
+        long activeNanos = System.nanoTime() - fileStartNanos - (pausedNanos - fileStartPausedNanos);
+        if (fileName == null || done <= 0 || activeNanos <= 0) {
+            return -1;
+        }
+        double bytesPerNano = (double) done / activeNanos;
+        return (long) ((fileBytes - bytesDone) / bytesPerNano / 1_000_000_000L);
+    }
+
+    /**
+     * @return the share of the current file that is committed, between 0 and 1
+     */
+    public double getFileFraction() {
+        return fileBytes > 0 ? Math.min(1.0, (double) bytesDone / fileBytes) : 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adapts the import's batch size and the pause between batches to a commit latency budget.
+ * After every commit it looks at how long the commit took and whether any pooled connection took longer than
+ * the acquire budget to hand out since the previous commit. Over budget, the batch size is halved and the pause
+ * doubled; within budget, the batch size grows by a fixed step and the pause shrinks again (additive increase,
+ * multiplicative decrease). Every import file adapts on its own, see {@link #start}.
+ * When disabled, batches keep their full size and are not paced.
+ */
+@Component
+public class ImportThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportThrottle.class);
+    private static final long MAX_PAUSE_MS = 5000;
+
+    private final boolean enabled;
+    private final long latencyBudgetNanos;
+    private final long acquireBudgetNanos;
+    private final int minBatchSize;
+    private final long minPauseMs;
+    // connection requests that waited longer than the acquire budget or timed out, since startup
+    private final LongAdder slowAcquisitions = new LongAdder();
+    // set when the pool already reports to another metrics tracker; then only waiting threads can be seen
+    private final HikariDataSource waitingPool;
+
+    public ImportThrottle(@Value("${app.import.throttle.enabled:false}") boolean enabled,
+                          @Value("${app.import.throttle.latency-budget-ms:250}") long latencyBudgetMs,
+                          @Value("${app.import.throttle.acquire-budget-ms:5}") long acquireBudgetMs,
+                          @Value("${app.import.throttle.min-batch-size:500}") int minBatchSize,
+                          @Value("${app.import.throttle.min-pause-ms:0}") long minPauseMs,
+                          DataSource dataSource) {
+        this.enabled = enabled;
+        this.latencyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(latencyBudgetMs);
+        this.acquireBudgetNanos = TimeUnit.MILLISECONDS.toNanos(acquireBudgetMs);
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.minPauseMs = minPauseMs;
+        HikariDataSource hikari = dataSource instanceof HikariDataSource hikariDataSource ? hikariDataSource : null;
+        if (enabled && hikari != null && hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+            hikari.setMetricsTrackerFactory((poolName, poolStats) -> new AcquireTracker());
+            this.waitingPool = null;
+        } else {
+            this.waitingPool = hikari;
+        }
+    }
+
+    /**
+     * Starts a file halfway between the smallest and the largest batch size.
+     * A disabled throttle always returns the largest one. The batch size never exceeds the largest one,
+     * even if the configured minimum is larger, so callers can size their buffers by it.
+     *
+     * @param maxBatchSize the largest batch size
+     * @return the batch size and pause of this file, adapted independently of other imports
+     */
+    public Run start(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Largest batch size must be positive: " + maxBatchSize);
+        }
+        if (enabled && minBatchSize > maxBatchSize) {
+            logger.warn("Throttle min-batch-size {} is above the largest batch size {}, using {}",
+                    minBatchSize, maxBatchSize, maxBatchSize);
+        }
+        return new Run(Math.min(minBatchSize, maxBatchSize), maxBatchSize);
+    }
+
+    /**
+     * Counts the connection requests that waited for the pool; installed as the pool's metrics tracker.
+     */
+    private final class AcquireTracker implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            if (elapsedAcquiredNanos > acquireBudgetNanos) {
+                slowAcquisitions.increment();
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            slowAcquisitions.increment();
+        }
+    }
+
+    /**
+     * Batch size and pause of one import file. Thread-safe, so parallel writers can report their commits.
+     */
+    public final class Run {
+
+        private final int minBatchSize;
+        private final int maxBatchSize;
+        private final int batchStep;
+        private int batchSize;
+        private long pauseMs;
+        // slowAcquisitions at the previous commit
+        private long seenSlowAcquisitions;
+
+        private Run(int minBatchSize, int maxBatchSize) {
+            this.minBatchSize = minBatchSize;
+            this.maxBatchSize = maxBatchSize;
+            this.batchStep = Math.max(1, minBatchSize / 2);
+            this.batchSize = enabled ? (minBatchSize + maxBatchSize) / 2 : maxBatchSize;
+            this.pauseMs = minPauseMs;
+            this.seenSlowAcquisitions = slowAcquisitions.sum();
+        }
+
+        public synchronized int batchSize() {
+            return batchSize;
+        }
+
+        /**
+         * Records the latency of one commit and adapts batch size and pause.
+         *
+         * @param commitNanos the time the chunk's transaction took
+         */
+        public void committed(long commitNanos) {
+            if (!enabled) {
+                return;
+            }
+            // The pool MXBean only exists once the pool has started
+            HikariPoolMXBean pool = waitingPool != null ? waitingPool.getHikariPoolMXBean() : null;
+            int waiting = pool != null ? pool.getThreadsAwaitingConnection() : 0;
+            long slow = slowAcquisitions.sum();
+            synchronized (this) {
+                long slowSinceLastCommit = slow - seenSlowAcquisitions;
+                seenSlowAcquisitions = Math.max(seenSlowAcquisitions, slow);
+                if (commitNanos > latencyBudgetNanos || slowSinceLastCommit > 0 || waiting > 0) {
+                    batchSize = Math.max(minBatchSize, batchSize / 2);
+                    pauseMs = Math.min(MAX_PAUSE_MS, Math.max(pauseMs * 2, Math.max(minPauseMs, 50)));
+                    logger.debug("Import over budget ({} ms commit, {} slow connection requests): batch {}, pause {} ms",
+                            TimeUnit.NANOSECONDS.toMillis(commitNanos), Math.max(slowSinceLastCommit, waiting),
+                            batchSize, pauseMs);
+                } else {
+                    batchSize = Math.min(maxBatchSize, batchSize + batchStep);
+                    pauseMs = Math.max(minPauseMs, pauseMs / 2);
+                }
+            }
+        }
+
+        /**
+         * Sleeps for the current pause, giving request traffic room between two batches.
+         */
+        public void pace() throws InterruptedException {
+            if (!enabled) {
+                return;
+            }
+            long pause;
+            synchronized (this) {
+                pause = pauseMs;
+            }
+            if (pause > 0) {
+                Thread.sleep(pause);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Background thread of an in-memory index: a single low-priority daemon thread that rebuilds the index once
+ * the application is ready, every refreshMinutes if that is positive, and whenever {@link #refresh} is called.
+ * Other background work on the index runs on the same thread, so it never overlaps a rebuild.
+ * A disabled rebuilder never rebuilds.
+ */
+final class IndexRebuilder {
+
+    private final boolean enabled;
+    private final long refreshMinutes;
+    private final Runnable rebuild;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param threadName the name of the background thread
+     * @param rebuild builds the index and swaps it in, logging its own failures
+     */
+    IndexRebuilder(String threadName, boolean enabled, long refreshMinutes, Runnable rebuild) {
+        this.enabled = enabled;
+        this.refreshMinutes = refreshMinutes;
+        this.rebuild = rebuild;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        if (refreshMinutes > 0) {
+            executor.scheduleWithFixedDelay(rebuild, 0, refreshMinutes, TimeUnit.MINUTES);
+        } else {
+            executor.execute(rebuild);
+        }
+    }
+
+    /**
+     * Schedules a rebuild.
+     */
+    void refresh() {
+        if (enabled) {
+            executor.execute(rebuild);
+        }
+    }
+
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Passes every row of a streaming query to the action.
+     * MySQL streams a result set only while its connection runs no other statement, so the cursor is read inside
+     * one transaction, which also makes it one consistent snapshot of the table. The transaction is read-only,
+     * which spares InnoDB the bookkeeping of a read-write one.
+     *
+     * @param query opens the cursor, e.g. a ContentMapper stream method
+     */
+    static <T> void stream(PlatformTransactionManager transactionManager, Supplier<Cursor<T>> query,
+                           Consumer<? super T> action) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Cursor<T> cursor = query.get()) {
+                cursor.forEach(action);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Finds JSON-lines records in a buffer: one JSON object per line.
+ * JSON strings cannot contain a raw line break, so every LF ends a record; blank lines are skipped.
+ */
+final class JsonLineScanner implements RecordScanner {
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private final boolean endOfInput;
+    private int position;
+    private int recordStart;
+    private int recordEnd;
+    private boolean incomplete;
+    private byte[] scratch = new byte[4096];
+
+    JsonLineScanner(ByteBuffer buffer, boolean endOfInput) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+        this.endOfInput = endOfInput;
+    }
+
+    @Override
+    public boolean next() {
+        incomplete = false;
+        while (position < limit) {
+            int start = position;
+            int end = start;
+            while (end < limit && buffer.get(end) != LF) {
+                end++;
+            }
+            if (end == limit && !endOfInput) {
+                // the record continues beyond this buffer
+                incomplete = true;
+                return false;
+            }
+            position = end < limit ? end + 1 : limit;
+            if (end > start && buffer.get(end - 1) == CR) {
+                end--;
+            }
+            if (!isBlank(start, end)) {
+                recordStart = start;
+                recordEnd = end;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isIncomplete() {
+        return incomplete;
+    }
+
+    @Override
+    public int position() {
+        return position;
+    }
+
+    @Override
+    public int recordStart() {
+        return recordStart;
+    }
+
+    @Override
+    public ByteBuffer record() {
+        return buffer.slice(recordStart, recordEnd - recordStart);
+    }
+
+    /**
+     * Copies the current record into {@link #scratch()}, where a parser can read it as an array.
+     *
+     * @return the length of the record
+     */
+    int copyRecord() {
+        int length = recordEnd - recordStart;
+        if (scratch.length < length) {
+            scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+        buffer.get(recordStart, scratch, 0, length);
+        return length;
+    }
+
+    /**
+     * Buffer filled by {@link #copyRecord()}; its content is only valid until the next call.
+     */
+    byte[] scratch() {
+        return scratch;
+    }
+
+    private boolean isBlank(int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
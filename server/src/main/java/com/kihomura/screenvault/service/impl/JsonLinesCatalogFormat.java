@@ -0,0 +1,34 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Catalog dumps in JSON-lines format (.jsonl or .ndjson): one object per line, keyed by the CSV column names.
+ */
+@Component
+class JsonLinesCatalogFormat implements CatalogFormat<JsonLineScanner> {
+
+    private final JsonLinesRowMapper mapper = new JsonLinesRowMapper();
+
+    @Override
+    public boolean accepts(String fileName) {
+        return fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson");
+    }
+
+    @Override
+    public int headerRecords() {
+        return 0;
+    }
+
+    @Override
+    public JsonLineScanner scanner(ByteBuffer buffer, boolean endOfInput) {
+        return new JsonLineScanner(buffer, endOfInput);
+    }
+
+    @Override
+    public JsonLinesRowMapper mapper() {
+        return mapper;
+    }
+}
@@ -0,0 +1,177 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.enums.Genre;
+import com.kihomura.screenvault.enums.SourceType;
+import com.kihomura.screenvault.service.impl.ImportErrorCounters.Issue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps a JSON-lines record to a Content object with Jackson's streaming parser, without building a tree.
+ * Keys are the catalog CSV column names (title, other_title, country, language, description, image,
+ * release_date, genre, category, source_type); unknown keys, nested values and nulls are ignored,
+ * and values are validated the same way as in the CSV import.
+ * Instances hold no per-record state and can be shared by parser threads.
+ */
+final class JsonLinesRowMapper implements RecordMapper<JsonLineScanner> {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    // Keys of the catalog columns, in the order of the CSV layout
+    private static final List<String> COLUMNS = List.of("title", "other_title", "country", "language", "description",
+            "image", "release_date", "genre", "category", "source_type");
+
+    private static final Map<String, Genre> GENRES = names(Genre.class);
+    private static final Map<String, Category> CATEGORIES = names(Category.class);
+    private static final Map<String, SourceType> SOURCE_TYPES = names(SourceType.class);
+
+    @Override
+    public Content map(JsonLineScanner row, Category defaultCategory, ImportErrorCounters errors) {
+        Content content = new Content();
+        content.setCategory(defaultCategory);
+        content.setSourceType(SourceType.OFFICIAL_DATA);
+
+        int length = row.copyRecord();
+        try (JsonParser parser = JSON.createParser(row.scratch(), 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("A JSON-lines record is not an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token.isStructStart()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String value = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                if (value == null || value.isEmpty()) {
+                    continue;
+                }
+                switch (name) {
+                    case "title" -> content.setTitle(value);
+                    case "other_title" -> content.setOtherTitle(value);
+                    case "country" -> content.setCountry(value);
+                    case "language" -> content.setLanguage(value);
+                    case "description" -> content.setDescription(value);
+                    case "image" -> content.setImage(value);
+                    case "release_date" -> content.setReleaseDate(releaseDate(value, errors));
+                    case "genre" -> content.setGenre(lookup(value, GENRES, null, Issue.UNKNOWN_GENRE, errors));
+                    case "category" -> content.setCategory(
+                            lookup(value, CATEGORIES, defaultCategory, Issue.UNKNOWN_CATEGORY, errors));
+                    case "source_type" -> content.setSourceType(
+                            lookup(value, SOURCE_TYPES, SourceType.OFFICIAL_DATA, Issue.UNKNOWN_SOURCE_TYPE, errors));
+                    default -> {
+                        // not a catalog column
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // malformed JSON, counted as a parse error by the import
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
+        if (content.getTitle() == null) {
+            errors.record(Issue.EMPTY_TITLE);
+            return null;
+        }
+        content.setCreatorId(null);
+        content.setFingerprint(ContentFingerprint.of(content));
+        content.setRowHash(ContentFingerprint.rowHash(content));
+        TitleNormalizer.apply(content);
+        return content;
+    }
+
+    /**
+     * {@link #map} only rejects a record without a title; anything it cannot read is a parse error.
+     */
+    @Override
+    public Issue rejection(JsonLineScanner row) {
+        String[] columns = columns(row);
+        return columns != null && columns[0] == null ? Issue.EMPTY_TITLE : Issue.PARSE_ERROR;
+    }
+
+    /**
+     * The record's values of the catalog keys as a CSV row, so the dead-letter file can be fixed and replayed
+     * like one of the CSV import; null for malformed JSON.
+     */
+    @Override
+    public ByteBuffer deadLetterRecord(JsonLineScanner row) {
+        String[] columns = columns(row);
+        return columns != null ? DeadLetterWriter.record(columns) : null;
+    }
+
+    /**
+     * Reads the values of the catalog keys as they are, without validating them.
+     *
+     * @return the catalog columns in CSV order, null for missing and empty values; null if the record is not
+     *         a JSON object
+     */
+    private static String[] columns(JsonLineScanner row) {
+        String[] columns = new String[COLUMNS.size()];
+        int length = row.copyRecord();
+        try (JsonParser parser = JSON.createParser(row.scratch(), 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token.isStructStart()) {
+                    parser.skipChildren();
+                    continue;
+                }
+                String value = token == JsonToken.VALUE_NULL ? null : parser.getText();
+                int column = COLUMNS.indexOf(name);
+                if (column >= 0 && value != null && !value.isEmpty()) {
+                    columns[column] = value;
+                }
+            }
+            return columns;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static LocalDate releaseDate(String value, ImportErrorCounters errors) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            recordValue(Issue.BAD_RELEASE_DATE, value, errors);
+            return null;
+        }
+    }
+
+    private static <E extends Enum<E>> E lookup(String value, Map<String, E> names, E fallback,
+                                                Issue unknown, ImportErrorCounters errors) {
+        E constant = names.get(value);
+        if (constant == null) {
+            recordValue(unknown, value, errors);
+            return fallback;
+        }
+        return constant;
+    }
+
+    private static void recordValue(Issue issue, String value, ImportErrorCounters errors) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        errors.record(issue, bytes, bytes.length);
+    }
+
+    private static <E extends Enum<E>> Map<String, E> names(Class<E> enumClass) {
+        Map<String, E> names = new HashMap<>();
+        for (E value : enumClass.getEnumConstants()) {
+            names.put(value.name(), value);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,82 @@
+package com.kihomura.screenvault.service.impl;
+
+/**
+ * A set of long keys in one open-addressing array, 16 to 32 bytes per key instead of
+ * the ~80 bytes of a boxed HashSet entry. Used to remember the fingerprints seen during a sync.
+ * Not thread-safe.
+ */
+final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int size;
+    // zero marks free slots, so the key zero is tracked separately
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        keys = new long[tableSize(expectedSize)];
+    }
+
+    void add(long key) {
+        if (key == EMPTY) {
+            containsZero = true;
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        if (insert(keys, key)) {
+            size++;
+        }
+    }
+
+    boolean contains(long key) {
+        if (key == EMPTY) {
+            return containsZero;
+        }
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    private void grow() {
+        long[] grown = new long[keys.length * 2];
+        for (long key : keys) {
+            if (key != EMPTY) {
+                insert(grown, key);
+            }
+        }
+        keys = grown;
+    }
+
+    private static boolean insert(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        return true;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int tableSize(int expectedSize) {
+        return Math.max(16, Integer.highestOneBit(Math.max(expectedSize, 1) * 2 - 1) << 1);
+    }
+}
@@ -0,0 +1,116 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads another stream on a background thread, a few blocks ahead of the consumer.
+ * Wrapped around a decompressing stream, inflating the next blocks overlaps with parsing the current ones.
+ * Errors of the background thread are rethrown to the consumer once it reaches them.
+ */
+final class ReadAheadInputStream extends InputStream {
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    // Marks the end of the stream in the queue
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final InputStream in;
+    private final BlockingQueue<ByteBuffer> blocks;
+    private final Thread thread;
+    private volatile IOException failure;
+    private ByteBuffer current = ByteBuffer.allocate(0);
+
+    /**
+     * @param in the stream to read ahead
+     * @param blocksAhead how many blocks of 1 MB may be read before the consumer takes them
+     */
+    ReadAheadInputStream(InputStream in, int blocksAhead) {
+        this.in = in;
+        this.blocks = new ArrayBlockingQueue<>(blocksAhead);
+        this.thread = new Thread(this::readAhead, "csv-read-ahead");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    private void readAhead() {
+        try {
+            try {
+                int read;
+                do {
+                    byte[] block = new byte[BLOCK_SIZE];
+                    read = in.readNBytes(block, 0, BLOCK_SIZE);
+                    if (read > 0) {
+                        blocks.put(ByteBuffer.wrap(block, 0, read));
+                    }
+                } while (read == BLOCK_SIZE);
+            } catch (IOException e) {
+                failure = e;
+            }
+            blocks.put(END);
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextBlock() ? current.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBlock()) {
+            return -1;
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && nextBlock()) {
+            int step = (int) Math.min(n - skipped, current.remaining());
+            current.position(current.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        in.close();
+    }
+
+    /**
+     * Makes sure the current block has bytes left, taking the next one if needed.
+     *
+     * @return false at the end of the stream
+     */
+    private boolean nextBlock() throws IOException {
+        while (!current.hasRemaining()) {
+            if (current == END) {
+                return false;
+            }
+            try {
+                current = blocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the read-ahead thread");
+            }
+            if (current == END && failure != null) {
+                throw failure;
+            }
+        }
+        return true;
+    }
+}
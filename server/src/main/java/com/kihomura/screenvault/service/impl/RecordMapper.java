@@ -0,0 +1,33 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.service.impl.ImportErrorCounters.Issue;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Maps the current record of a format's {@link RecordScanner} to a Content object.
+ * Implementations are shared by parser threads, so any per-record state belongs in the scanner.
+ */
+interface RecordMapper<S extends RecordScanner> {
+
+    /**
+     * @param row the scanner positioned at the record
+     * @param defaultCategory the category used when the record has none or an unknown one
+     * @param errors the counters of the current import run
+     * @return the content, or null if the record is rejected
+     */
+    Content map(S row, Category defaultCategory, ImportErrorCounters errors);
+
+    /**
+     * Tells why {@link #map} rejected a record.
+     */
+    Issue rejection(S row);
+
+    /**
+     * The rejected record as a catalog CSV row for the dead-letter file,
+     * or null if it cannot be read as one.
+     */
+    ByteBuffer deadLetterRecord(S row);
+}
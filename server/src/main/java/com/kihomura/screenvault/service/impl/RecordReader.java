@@ -0,0 +1,228 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the records of a catalog file from a memory-mapped file and keeps track of the byte offset after each record.
+ * Where a record ends is up to the format's {@link RecordScanner}; the reader only moves the window along.
+ * An import can therefore checkpoint its exact position and later resume with a single seek,
+ * instead of re-reading and re-parsing every record in front of it.
+ * The file is mapped in windows, so files larger than one mapping are read window by window.
+ * <p>
+ * Gzip files are recognized by their magic bytes and decompressed as a stream into heap windows instead,
+ * on a read-ahead thread so that inflating overlaps with parsing. Offsets then count decompressed bytes,
+ * so they mean the same as for the plain file; resuming at an offset has to inflate everything in front of it,
+ * but skips those bytes without tokenizing them.
+ */
+class RecordReader<S extends RecordScanner> implements Closeable {
+
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+    private static final int STREAM_WINDOW_SIZE = 16 * 1024 * 1024;
+    private static final int READ_AHEAD_BLOCKS = 8;
+
+    /**
+     * A run of whole records sharing one buffer, handed to a parser thread as is.
+     */
+    record RecordSlice(ByteBuffer bytes, int records) {}
+
+    private final RecordScanner.Factory<S> scanners;
+    // Exactly one of channel and stream is set
+    private final FileChannel channel;
+    private final InputStream stream;
+    private final long size;
+    private long windowBase;
+    private ByteBuffer window;
+    private S scanner;
+
+    /**
+     * Opens a reader positioned at a byte offset that must be a record boundary,
+     * i.e. 0 or an offset previously returned by {@link #offset()}.
+     *
+     * @param scanners creates the format's scanner for each window
+     */
+    RecordReader(Path path, long offset, RecordScanner.Factory<S> scanners) throws IOException {
+        this.scanners = scanners;
+        if (isGzip(path)) {
+            this.channel = null;
+            this.stream = new ReadAheadInputStream(
+                    new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024), 64 * 1024),
+                    READ_AHEAD_BLOCKS);
+            this.size = gzipSize(path);
+            try {
+                stream.skipNBytes(offset);
+                fill(offset, ByteBuffer.allocate(0));
+            } catch (EOFException e) {
+                stream.close();
+                throw new IOException("Offset " + offset + " is beyond the end of the decompressed " + path, e);
+            } catch (IOException e) {
+                stream.close();
+                throw e;
+            }
+        } else {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.stream = null;
+            this.size = channel.size();
+            if (offset > size) {
+                channel.close();
+                throw new IOException("Offset " + offset + " is beyond the end of " + path);
+            }
+            map(offset);
+        }
+    }
+
+    static boolean isGzip(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    /**
+     * The decompressed size recorded in the trailer of a gzip file.
+     * It is stored modulo 4 GB and only covers the last member, so it is an estimate for progress reporting.
+     */
+    private static long gzipSize(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer trailer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(trailer, channel.size() - 4);
+            return Integer.toUnsignedLong(trailer.getInt(0));
+        }
+    }
+
+    /**
+     * Moves to the next record; it is then available through {@link #row()}.
+     *
+     * @return false at the end of the file
+     */
+    boolean next() throws IOException {
+        while (!scanner.next()) {
+            if (!scanner.isIncomplete()) {
+                return false;
+            }
+            remapAtCurrentRecord();
+        }
+        return true;
+    }
+
+    /**
+     * The current record, valid until the next call to {@link #next()}.
+     */
+    S row() {
+        return scanner;
+    }
+
+    /**
+     * Skips whole records without decoding them.
+     *
+     * @return the number of records actually skipped
+     */
+    int skip(int records) throws IOException {
+        int skipped = 0;
+        while (skipped < records && next()) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Cuts the next run of up to {@code maxRecords} records out of the mapping without copying them.
+     * A run stops early at the end of a mapping window.
+     *
+     * @return the records, or null at the end of the file
+     */
+    RecordSlice nextSlice(int maxRecords) throws IOException {
+        int start = scanner.position();
+        int records = 0;
+        while (records < maxRecords) {
+            if (scanner.next()) {
+                records++;
+            } else if (scanner.isIncomplete() && records == 0) {
+                remapAtCurrentRecord();
+                start = scanner.position();
+            } else {
+                break;
+            }
+        }
+        if (records == 0) {
+            return null;
+        }
+        ByteBuffer bytes = window.slice(start, scanner.position() - start);
+        return new RecordSlice(bytes, records);
+    }
+
+    /**
+     * Byte offset where the last record returned starts.
+     */
+    long recordOffset() {
+        return windowBase + scanner.recordStart();
+    }
+
+    /**
+     * Byte offset right after the last record returned.
+     */
+    long offset() {
+        return windowBase + scanner.position();
+    }
+
+    /**
+     * Size of the file in bytes; for a gzip file the estimated decompressed size.
+     */
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        } else {
+            stream.close();
+        }
+    }
+
+    private void remapAtCurrentRecord() throws IOException {
+        long recordStart = offset();
+        if (stream != null) {
+            // Slices handed out earlier still point into the old window, so the rest of it is copied, not compacted
+            fill(recordStart, window.slice(scanner.position(), window.limit() - scanner.position()));
+            return;
+        }
+        if (recordStart == windowBase) {
+            throw new IOException("A record at offset " + recordStart + " is larger than the mapping window");
+        }
+        map(recordStart);
+    }
+
+    private void map(long offset) throws IOException {
+        long length = Math.min(WINDOW_SIZE, size - offset);
+        windowBase = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        scanner = scanners.create(window, offset + length == size);
+    }
+
+    /**
+     * Starts a new heap window at {@code offset} with the bytes carried over from the previous window,
+     * then fills it from the stream. A record longer than half a window gets a larger window.
+     */
+    private void fill(long offset, ByteBuffer carry) throws IOException {
+        ByteBuffer next = ByteBuffer.allocate(Math.max(STREAM_WINDOW_SIZE, carry.remaining() * 2));
+        next.put(carry);
+        int wanted = next.remaining();
+        int read = stream.readNBytes(next.array(), next.position(), wanted);
+        next.position(next.position() + read);
+        next.flip();
+        windowBase = offset;
+        window = next;
+        scanner = scanners.create(window, read < wanted);
+    }
+}
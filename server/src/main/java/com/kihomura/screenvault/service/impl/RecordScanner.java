@@ -0,0 +1,53 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Finds the records of one catalog file format in a buffer, usually a window of a {@link RecordReader}.
+ * The reader and the parallel import only need to know where records start and end;
+ * what a record contains is left to the format's {@link RecordMapper}.
+ */
+interface RecordScanner {
+
+    /**
+     * Creates a scanner over a buffer.
+     */
+    @FunctionalInterface
+    interface Factory<S extends RecordScanner> {
+
+        /**
+         * @param buffer the bytes to scan, from its position to its limit
+         * @param endOfInput whether the buffer's limit is the real end of the data; if not, a record
+         *                   running into the limit is reported as incomplete instead of being cut off
+         */
+        S create(ByteBuffer buffer, boolean endOfInput);
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return false at the end of the buffer, or when the next record runs past the buffer's limit
+     *         and more input follows (see {@link #isIncomplete()})
+     */
+    boolean next();
+
+    /**
+     * Whether the last call to {@link #next()} stopped at a record that continues past the buffer.
+     */
+    boolean isIncomplete();
+
+    /**
+     * Buffer index right after the current record, which is where the next record starts.
+     */
+    int position();
+
+    /**
+     * Buffer index where the current record starts.
+     */
+    int recordStart();
+
+    /**
+     * The raw bytes of the current record, line break excluded, without copying.
+     */
+    ByteBuffer record();
+}
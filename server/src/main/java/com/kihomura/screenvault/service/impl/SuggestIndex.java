@@ -0,0 +1,354 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Suggestion;
+import com.kihomura.screenvault.enums.Category;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable prefix index of official titles for typeahead, ranked by popularity.
+ * <p>
+ * The normalized titles are sorted and front-coded in blocks of {@link #BLOCK_SIZE}: the first key of a block
+ * is stored in full, every other key as the length of the prefix it shares with its predecessor and the rest.
+ * The keys starting with a prefix form one range of entries, found by two binary searches over the block heads.
+ * A segment tree over the entries' scores (popularity first, release date second) returns the best entry of
+ * any range, so the top K of a range come out of a priority queue of sub-ranges in O(K log n).
+ * <p>
+ * An entry is estimated at half its key (front coding shares the rest with the previous key), its title and
+ * {@link #ENTRY_OVERHEAD} bytes for the per-entry arrays; when the catalog does not fit into the memory budget,
+ * the entries with the lowest scores are left out.
+ */
+final class SuggestIndex {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int ENTRY_OVERHEAD = 32;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final int size;
+    private final byte[] keys;
+    private final int[] blockOffsets;
+    private final int[] ids;
+    private final byte[] titles;
+    private final int[] titleOffsets;
+    private final long[] scores;
+    private final int[] releaseDays;
+    private final byte[] categories;
+    // segment tree of the best entry per node, leaves at size + i
+    private final int[] best;
+
+    /**
+     * Collects the entries of an index before it is built.
+     */
+    static final class Builder {
+
+        private final List<String> keys = new ArrayList<>();
+        private final List<Suggestion> suggestions = new ArrayList<>();
+
+        void add(String normalizedTitle, Suggestion suggestion) {
+            if (normalizedTitle == null || normalizedTitle.isEmpty()) {
+                return;
+            }
+            keys.add(normalizedTitle);
+            suggestions.add(suggestion);
+        }
+
+        /**
+         * @param memoryBudget the bytes the index may take
+         */
+        SuggestIndex build(long memoryBudget) {
+            int count = keys.size();
+            long[] scores = new long[count];
+            long total = 0;
+            for (int i = 0; i < count; i++) {
+                scores[i] = score(suggestions.get(i));
+                total += estimate(i);
+            }
+
+            Integer[] entries = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                entries[i] = i;
+            }
+            int kept = count;
+            if (total > memoryBudget) {
+                // keep the best entries that fit
+                Arrays.sort(entries, (a, b) -> Long.compare(scores[b], scores[a]));
+                long used = 0;
+                kept = 0;
+                while (kept < count && used + estimate(entries[kept]) <= memoryBudget) {
+                    used += estimate(entries[kept++]);
+                }
+            }
+            Integer[] selected = Arrays.copyOf(entries, kept);
+            byte[][] keyBytes = new byte[count][];
+            for (Integer entry : selected) {
+                keyBytes[entry] = bytes(keys.get(entry));
+            }
+            Arrays.sort(selected, (a, b) -> compare(keyBytes[a], keyBytes[b]));
+            return new SuggestIndex(this, selected, keyBytes, scores);
+        }
+
+        private long estimate(int entry) {
+            Suggestion suggestion = suggestions.get(entry);
+            return keys.get(entry).length() / 2 + suggestion.getTitle().length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    private SuggestIndex(Builder builder, Integer[] selected, byte[][] keyBytes, long[] allScores) {
+        size = selected.length;
+        ids = new int[size];
+        titleOffsets = new int[size + 1];
+        scores = new long[size];
+        releaseDays = new int[size];
+        categories = new byte[size];
+        blockOffsets = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+
+        ByteArrayOutputStream keyData = new ByteArrayOutputStream();
+        ByteArrayOutputStream titleData = new ByteArrayOutputStream();
+        byte[] previous = new byte[0];
+        for (int i = 0; i < size; i++) {
+            int entry = selected[i];
+            Suggestion suggestion = builder.suggestions.get(entry);
+            byte[] key = keyBytes[entry];
+            if (i % BLOCK_SIZE == 0) {
+                blockOffsets[i / BLOCK_SIZE] = keyData.size();
+                writeVarint(keyData, key.length);
+                keyData.write(key, 0, key.length);
+            } else {
+                int shared = sharedPrefix(previous, key);
+                writeVarint(keyData, shared);
+                writeVarint(keyData, key.length - shared);
+                keyData.write(key, shared, key.length - shared);
+            }
+            previous = key;
+
+            ids[i] = suggestion.getId();
+            byte[] title = bytes(suggestion.getTitle());
+            titleData.write(title, 0, title.length);
+            titleOffsets[i + 1] = titleData.size();
+            scores[i] = allScores[entry];
+            releaseDays[i] = suggestion.getReleaseDate() != null
+                    ? (int) suggestion.getReleaseDate().toEpochDay() : NO_DATE;
+            categories[i] = (byte) (suggestion.getCategory() != null ? suggestion.getCategory().ordinal() : -1);
+        }
+        keys = keyData.toByteArray();
+        titles = titleData.toByteArray();
+
+        best = new int[2 * Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            best[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            best[node] = better(best[2 * node], best[2 * node + 1]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param normalizedPrefix a non-empty prefix normalized with TitleNormalizer
+     * @param limit the number of suggestions to return
+     * @return the best entries whose normalized title starts with the prefix, best first
+     */
+    List<Suggestion> suggest(String normalizedPrefix, int limit) {
+        byte[] prefix = bytes(normalizedPrefix);
+        byte[] end = prefix.clone();
+        end[end.length - 1]++; // normalized keys never contain 0xff
+        int from = lowerBound(prefix);
+        int to = lowerBound(end);
+
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, Math.max(0, to - from)));
+        // sub-ranges as {best entry, from, to}, best first
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> better(a[0], b[0]) == a[0] ? -1 : 1);
+        if (from < to) {
+            ranges.add(new int[]{rangeBest(from, to), from, to});
+        }
+        while (!ranges.isEmpty() && suggestions.size() < limit) {
+            int[] range = ranges.poll();
+            int entry = range[0];
+            suggestions.add(suggestion(entry));
+            if (range[1] < entry) {
+                ranges.add(new int[]{rangeBest(range[1], entry), range[1], entry});
+            }
+            if (entry + 1 < range[2]) {
+                ranges.add(new int[]{rangeBest(entry + 1, range[2]), entry + 1, range[2]});
+            }
+        }
+        return suggestions;
+    }
+
+    private Suggestion suggestion(int entry) {
+        int day = releaseDays[entry];
+        byte category = categories[entry];
+        return Suggestion.builder()
+                .id(ids[entry])
+                .title(new String(titles, titleOffsets[entry], titleOffsets[entry + 1] - titleOffsets[entry],
+                        StandardCharsets.UTF_8))
+                .category(category >= 0 ? CATEGORIES[category] : null)
+                .releaseDate(day != NO_DATE ? LocalDate.ofEpochDay(day) : null)
+                .popularity((int) (scores[entry] >>> 32))
+                .build();
+    }
+
+    /**
+     * @return the best entry in [from, to)
+     */
+    private int rangeBest(int from, int to) {
+        int result = -1;
+        for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                result = result < 0 ? best[l] : better(result, best[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                result = result < 0 ? best[r] : better(result, best[r]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Higher score wins; equal scores go to the entry that sorts first.
+     */
+    private int better(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    /**
+     * @return the first entry whose key is not less than the target
+     */
+    private int lowerBound(byte[] target) {
+        // last block whose head is less than the target
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (compareHead(middle, target) < 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) {
+            return 0;
+        }
+        // walk the block; every key before the block's end that is less than the target is skipped
+        byte[] key = new byte[64];
+        int keyLength;
+        int position = blockOffsets[block];
+        int entry = block * BLOCK_SIZE;
+        int blockEnd = Math.min(entry + BLOCK_SIZE, size);
+        for (; entry < blockEnd; entry++) {
+            int shared;
+            int rest;
+            if (entry % BLOCK_SIZE == 0) {
+                shared = 0;
+                long varint = readVarint(position);
+                rest = (int) varint;
+                position = (int) (varint >>> 32);
+            } else {
+                long varint = readVarint(position);
+                shared = (int) varint;
+                varint = readVarint((int) (varint >>> 32));
+                rest = (int) varint;
+                position = (int) (varint >>> 32);
+            }
+            if (shared + rest > key.length) {
+                key = Arrays.copyOf(key, Math.max(shared + rest, key.length * 2));
+            }
+            System.arraycopy(keys, position, key, shared, rest);
+            position += rest;
+            keyLength = shared + rest;
+            if (compare(key, keyLength, target) >= 0) {
+                return entry;
+            }
+        }
+        return blockEnd;
+    }
+
+    private int compareHead(int block, byte[] target) {
+        long varint = readVarint(blockOffsets[block]);
+        int length = (int) varint;
+        int position = (int) (varint >>> 32);
+        int n = Math.min(length, target.length);
+        for (int i = 0; i < n; i++) {
+            int difference = (keys[position + i] & 0xff) - (target[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - target.length;
+    }
+
+    /**
+     * @return the value in the low and the position after it in the high 32 bits
+     */
+    private long readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = keys[position++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) position << 32) | value;
+    }
+
+    private static long score(Suggestion suggestion) {
+        long popularity = suggestion.getPopularity() != null ? suggestion.getPopularity() : 0;
+        long day = suggestion.getReleaseDate() != null
+                ? suggestion.getReleaseDate().toEpochDay() + 0x8000_0000L : 0;
+        return popularity << 32 | (day & 0xffff_ffffL);
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        return compare(a, a.length, b);
+    }
+
+    private static int compare(byte[] a, int aLength, byte[] b) {
+        int n = Math.min(aLength, b.length);
+        for (int i = 0; i < n; i++) {
+            int difference = (a[i] & 0xff) - (b[i] & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return aLength - b.length;
+    }
+
+    private static int sharedPrefix(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        int i = 0;
+        while (i < n && a[i] == b[i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
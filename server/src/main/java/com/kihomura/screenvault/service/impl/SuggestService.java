@@ -0,0 +1,88 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Suggestion;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Typeahead suggestions for official titles from an in-memory SuggestIndex.
+ * The index is built on a background thread once the application is ready and rebuilt after in-app imports
+ * and every app.search.suggest.refresh-minutes, which also brings popularity up to date. Until the first build
+ * has finished there are no suggestions.
+ */
+@Service
+public class SuggestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final long memoryBudget;
+    private final IndexRebuilder rebuilder;
+
+    // immutable, replaced as a whole by every rebuild
+    private volatile SuggestIndex index;
+
+    public SuggestService(@Value("${app.search.suggest.enabled:true}") boolean enabled,
+                          @Value("${app.search.suggest.refresh-minutes:60}") long refreshMinutes,
+                          @Value("${app.search.suggest.memory-mb:64}") long memoryMb) {
+        this.memoryBudget = memoryMb * 1024 * 1024;
+        this.rebuilder = new IndexRebuilder("suggest-index", enabled, refreshMinutes, this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilder.start();
+    }
+
+    /**
+     * Schedules a rebuild, e.g. after an import changed the catalog.
+     */
+    public void refresh() {
+        rebuilder.refresh();
+    }
+
+    /**
+     * @param normalizedPrefix a non-empty prefix normalized with TitleNormalizer
+     * @param limit the number of suggestions
+     * @return the most popular official contents whose title starts with the prefix, most popular first
+     */
+    public List<Suggestion> suggest(String normalizedPrefix, int limit) {
+        SuggestIndex current = index;
+        return current != null ? current.suggest(normalizedPrefix, limit) : Collections.emptyList();
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            SuggestIndex.Builder builder = new SuggestIndex.Builder();
+            IndexRebuilder.stream(transactionManager, contentMapper::streamSuggestions, suggestion ->
+                    builder.add(TitleNormalizer.normalize(suggestion.getTitle()), suggestion));
+            SuggestIndex rebuilt = builder.build(memoryBudget);
+            index = rebuilt;
+            logger.info("Suggest index built with {} titles in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.error("Building the suggest index failed: ", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+}
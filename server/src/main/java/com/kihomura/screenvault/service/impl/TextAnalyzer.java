@@ -0,0 +1,98 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts titles and descriptions into the terms of the full-text index.
+ * <p>
+ * Words are runs of letters, folded like titles by TitleNormalizer, so "Amélie" and "AMELIE" are the same term;
+ * numbers are runs of digits. Chinese, Japanese and Korean text, written without spaces between words,
+ * is cut into overlapping character pairs instead, like the title index does; a lone character is a term of its own.
+ */
+final class TextAnalyzer {
+
+    // longer runs are not words; they only bloat the dictionary
+    private static final int MAX_TERM_LENGTH = 40;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * @param text any text, or null
+     * @return the terms of the text in order, with repetitions
+     */
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int runStart = -1;
+        boolean digits = false;
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            int type = Character.getType(codePoint);
+            boolean letter = Character.isLetter(codePoint)
+                    || type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+            boolean digit = !letter && Character.isDigit(codePoint);
+            if (runStart >= 0 && (digits ? !digit : !letter)) {
+                addRun(terms, text.substring(runStart, i), digits);
+                runStart = -1;
+            }
+            if (runStart < 0 && (letter || digit)) {
+                runStart = i;
+                digits = digit;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return terms;
+    }
+
+    private static void addRun(List<String> terms, String run, boolean digits) {
+        if (digits) {
+            if (run.length() <= MAX_TERM_LENGTH) {
+                terms.add(run);
+            }
+            return;
+        }
+        String normalized = TitleNormalizer.normalize(run);
+        // split into CJK and other parts
+        int partStart = 0;
+        boolean cjk = false;
+        for (int i = 0; i <= normalized.length(); ) {
+            int codePoint = i < normalized.length() ? normalized.codePointAt(i) : -1;
+            boolean end = codePoint < 0;
+            // marks kept by the normalizer belong to the CJK character before them
+            boolean isCjk = !end && (TitleNormalizer.isCjk(codePoint)
+                    || cjk && Character.getType(codePoint) == Character.NON_SPACING_MARK);
+            if (i > partStart && (end || isCjk != cjk)) {
+                String part = normalized.substring(partStart, i);
+                if (cjk) {
+                    addBigrams(terms, part);
+                } else if (part.length() <= MAX_TERM_LENGTH) {
+                    terms.add(part);
+                }
+                partStart = i;
+            }
+            if (i == partStart) {
+                cjk = isCjk;
+            }
+            i += end ? 1 : Character.charCount(codePoint);
+        }
+    }
+
+    private static void addBigrams(List<String> terms, String part) {
+        int first = 0;
+        int second = part.offsetByCodePoints(0, 1);
+        if (second == part.length()) {
+            terms.add(part);
+            return;
+        }
+        while (second < part.length()) {
+            int third = part.offsetByCodePoints(second, 1);
+            terms.add(part.substring(first, third));
+            first = second;
+            second = third;
+        }
+    }
+}
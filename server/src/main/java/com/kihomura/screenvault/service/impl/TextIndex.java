@@ -0,0 +1,261 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Full-text index of titles, other titles and descriptions, ranked with BM25.
+ * <p>
+ * The index is a list of TextSegments: one large segment read from the table, plus a small segment per content
+ * saved since. Saving or deleting a content marks its earlier version in the older segments as deleted.
+ * Once there are more than a few segments, all but the largest are merged into one in the background,
+ * which also drops their deleted contents; a periodic rebuild drops those of the large segment.
+ * <p>
+ * A query is the set of its terms; a content scores the sum over the terms it contains of
+ * idf * tf * (k1 + 1) / (tf + k1 * (1 - b + b * length / average length)), where tf and length are weighted by field
+ * (see TextSegment) and idf = ln(1 + (N - df + 0.5) / (df + 0.5)) over all segments. Only the posting lists of
+ * the query's terms are read, so a query costs time and memory in proportion to how many contents contain its
+ * terms, and a match only allocates once it makes the top results.
+ * Not thread-safe; see TextSearchService.
+ */
+final class TextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final List<TextSegment> segments = new ArrayList<>();
+    // incremented by every change, so a merge can tell whether its input is still current
+    private long version;
+
+    TextIndex(TextSegment base) {
+        segments.add(base);
+    }
+
+    int size() {
+        int size = 0;
+        for (TextSegment segment : segments) {
+            size += segment.liveCount();
+        }
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Indexes a content, replacing an earlier version of it.
+     *
+     * @param owner see TitleIndex.owner
+     */
+    void put(int id, int owner, String title, String otherTitle, String description) {
+        remove(id);
+        TextSegment.Builder builder = new TextSegment.Builder();
+        builder.add(id, owner, title, otherTitle, description);
+        segments.add(builder.build());
+    }
+
+    void remove(int id) {
+        for (TextSegment segment : segments) {
+            segment.delete(id);
+        }
+        version++;
+    }
+
+    /**
+     * @return the segments a merge combines: all but the largest
+     */
+    List<TextSegment> mergeCandidates() {
+        TextSegment largest = segments.get(0);
+        for (TextSegment segment : segments) {
+            if (segment.size() > largest.size()) {
+                largest = segment;
+            }
+        }
+        List<TextSegment> candidates = new ArrayList<>(segments);
+        candidates.remove(largest);
+        return candidates;
+    }
+
+    /**
+     * Replaces merged segments with the result of their merge.
+     */
+    void replace(List<TextSegment> merged, TextSegment result) {
+        int position = segments.indexOf(merged.get(0));
+        segments.removeAll(merged);
+        segments.add(position, result);
+        version++;
+    }
+
+    /**
+     * @param query the query text, analyzed like the indexed text
+     * @param creatorId the owner of the custom contents to include besides official ones, see TitleIndex.owner
+     * @param limit the number of contents to return
+     * @return the ids of the best matching contents, best first; equal scores by id
+     */
+    int[] search(String query, int creatorId, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.terms(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        long documents = 0;
+        long totalLength = 0;
+        for (TextSegment segment : segments) {
+            documents += segment.liveCount();
+            totalLength += segment.liveLength();
+        }
+        if (documents == 0) {
+            return new int[0];
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / documents);
+
+        List<byte[]> keys = new ArrayList<>(terms.size());
+        double[] idfs = new double[terms.size()];
+        for (String term : terms) {
+            byte[] key = term.getBytes(StandardCharsets.UTF_8);
+            long frequency = 0;
+            for (TextSegment segment : segments) {
+                int position = segment.find(key);
+                if (position >= 0) {
+                    frequency += segment.documentFrequency(position);
+                }
+            }
+            frequency = Math.min(frequency, documents);
+            idfs[keys.size()] = Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+            keys.add(key);
+        }
+
+        // the worst kept match on top: lower score, then higher id
+        PriorityQueue<long[]> best = new PriorityQueue<>(limit + 1, (a, b) -> a[0] != b[0]
+                ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        for (TextSegment segment : segments) {
+            collect(segment, keys, idfs, averageLength, creatorId, limit, best);
+        }
+        int[] ids = new int[best.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = (int) best.poll()[1];
+        }
+        return ids;
+    }
+
+    private static void collect(TextSegment segment, List<byte[]> keys, double[] idfs, double averageLength,
+                                int creatorId, int limit, PriorityQueue<long[]> best) {
+        int[] terms = new int[keys.size()];
+        long postings = 0;
+        for (int k = 0; k < terms.length; k++) {
+            terms[k] = segment.find(keys.get(k));
+            if (terms[k] >= 0) {
+                postings += segment.documentFrequency(terms[k]);
+            }
+        }
+        if (postings == 0) {
+            return;
+        }
+        Accumulator scores = new Accumulator(postings, segment.size());
+        for (int k = 0; k < terms.length; k++) {
+            int term = terms[k];
+            if (term < 0) {
+                continue;
+            }
+            int position = segment.postingOffset(term);
+            int ordinal = 0;
+            for (int i = segment.documentFrequency(term); i > 0; i--) {
+                long delta = segment.readVarint(position);
+                ordinal += (int) delta;
+                long frequency = segment.readVarint((int) (delta >>> 32));
+                position = (int) (frequency >>> 32);
+                double tf = (int) frequency;
+                double norm = K1 * (1 - B + B * segment.length(ordinal) / averageLength);
+                scores.add(ordinal, (float) (idfs[k] * tf * (K1 + 1) / (tf + norm)));
+            }
+        }
+        for (int slot = 0; slot < scores.capacity(); slot++) {
+            int ordinal = scores.ordinal(slot);
+            if (ordinal < 0) {
+                continue;
+            }
+            int owner = segment.owner(ordinal);
+            if ((owner != TitleIndex.OFFICIAL && (owner != creatorId || owner == TitleIndex.NO_OWNER))
+                    || segment.isDeleted(ordinal)) {
+                continue;
+            }
+            // scores are positive, so their float bits order like the scores
+            long score = Float.floatToIntBits(scores.score(slot));
+            int id = segment.id(ordinal);
+            if (best.size() == limit) {
+                long[] worst = best.peek();
+                if (score < worst[0] || (score == worst[0] && id > worst[1])) {
+                    continue;
+                }
+                best.poll();
+            }
+            best.add(new long[]{score, id});
+        }
+    }
+
+    /**
+     * Scores of the ordinals of one segment a query matches. An open-addressing table sized to the query's posting
+     * lists, so a query allocates in proportion to its matches rather than to the segment. A table slot takes 8 bytes
+     * and there are up to four slots per posting, so once the postings cover an eighth of the segment a plain array
+     * indexed by ordinal is no larger, and is used instead.
+     */
+    private static final class Accumulator {
+
+        // ordinal + 1 per slot, 0 for a free slot; null in the array form
+        private final int[] ordinals;
+        private final float[] scores;
+        private final int mask;
+
+        Accumulator(long postings, int segmentSize) {
+            if (postings * 8 >= segmentSize) {
+                ordinals = null;
+                scores = new float[segmentSize];
+                mask = 0;
+            } else {
+                int capacity = Integer.highestOneBit((int) postings * 2 - 1) << 1;
+                ordinals = new int[capacity];
+                scores = new float[capacity];
+                mask = capacity - 1;
+            }
+        }
+
+        void add(int ordinal, float score) {
+            if (ordinals == null) {
+                scores[ordinal] += score;
+                return;
+            }
+            int slot = (ordinal * 0x9E3779B9) >>> 1 & mask;
+            while (ordinals[slot] != 0 && ordinals[slot] != ordinal + 1) {
+                slot = (slot + 1) & mask;
+            }
+            ordinals[slot] = ordinal + 1;
+            scores[slot] += score;
+        }
+
+        int capacity() {
+            return scores.length;
+        }
+
+        /**
+         * @return the ordinal scored in a slot, or -1 if none is
+         */
+        int ordinal(int slot) {
+            if (ordinals == null) {
+                return scores[slot] != 0 ? slot : -1;
+            }
+            return ordinals[slot] - 1;
+        }
+
+        float score(int slot) {
+            return scores[slot];
+        }
+    }
+}
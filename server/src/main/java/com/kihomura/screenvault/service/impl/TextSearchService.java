@@ -0,0 +1,199 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * BM25 full-text search over titles, other titles and descriptions from an in-memory TextIndex.
+ * <p>
+ * Like TitleSearchService, the index is built on a background thread once the application is ready, rebuilt
+ * after in-app imports and every app.search.text.refresh-minutes, and custom contents saved or deleted through
+ * ContentServiceImpl are applied right away, each as a small segment of its own. When there are more than
+ * app.search.text.max-segments segments, the small ones are merged on the same background thread.
+ * The index is off by default, see app.search.text.enabled; while it is off and until the first build has finished,
+ * {@link #search} returns null.
+ */
+@Service
+public class TextSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextSearchService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final int maxSegments;
+    private final IndexRebuilder rebuilder;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private TextIndex index;
+    // changes made while a rebuild reads the table, applied to the new index before it replaces the old one
+    private List<Consumer<TextIndex>> pending;
+    private boolean mergeQueued;
+
+    public TextSearchService(@Value("${app.search.text.enabled:false}") boolean enabled,
+                             @Value("${app.search.text.refresh-minutes:60}") long refreshMinutes,
+                             @Value("${app.search.text.max-segments:8}") int maxSegments) {
+        this.maxSegments = Math.max(2, maxSegments);
+        this.rebuilder = new IndexRebuilder("text-index", enabled, refreshMinutes, this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilder.start();
+    }
+
+    /**
+     * Schedules a rebuild, e.g. after an import changed the catalog.
+     */
+    public void refresh() {
+        rebuilder.refresh();
+    }
+
+    /**
+     * @param query the query text
+     * @param creatorId the user whose custom contents are searched besides the official ones, see TitleIndex.owner
+     * @param limit the number of results
+     * @return the ids of the best matching contents, best first, or null while the index is off or not built yet
+     */
+    public int[] search(String query, int creatorId, int limit) {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.search(query, creatorId, limit) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a saved content with its new text.
+     */
+    public void saved(Content content) {
+        if (content.getId() == null) {
+            return;
+        }
+        int id = content.getId();
+        int owner = TitleIndex.owner(content.getSourceType(), content.getCreatorId());
+        String title = content.getTitle();
+        String otherTitle = content.getOtherTitle();
+        String description = content.getDescription();
+        apply(index -> index.put(id, owner, title, otherTitle, description));
+    }
+
+    public void deleted(int contentId) {
+        apply(index -> index.remove(contentId));
+    }
+
+    private void apply(Consumer<TextIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+                if (index.segmentCount() > maxSegments && !mergeQueued) {
+                    mergeQueued = true;
+                    rebuilder.execute(this::merge);
+                }
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merges all segments but the largest. The merge reads the segments under the read lock, so searches go on;
+     * it is dropped if the index changed before it could be swapped in, and the next change queues another.
+     */
+    private void merge() {
+        TextIndex merging;
+        long version;
+        List<TextSegment> segments;
+        TextSegment merged;
+        lock.readLock().lock();
+        try {
+            merging = index;
+            version = index.version();
+            segments = index.mergeCandidates();
+            merged = TextSegment.merge(segments);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            mergeQueued = false;
+            if (index == merging && index.version() == version) {
+                index.replace(segments, merged);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TextIndex rebuilt = null;
+        try {
+            rebuilt = new TextIndex(read());
+        } catch (Exception e) {
+            logger.error("Building the full-text index failed: ", e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                for (Consumer<TextIndex> change : pending) {
+                    change.accept(rebuilt);
+                }
+                index = rebuilt;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rebuilt != null) {
+            logger.info("Full-text index built with {} contents in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private TextSegment read() {
+        TextSegment.Builder builder = new TextSegment.Builder();
+        IndexRebuilder.stream(transactionManager, contentMapper::streamSearchTexts, content ->
+                builder.add(content.getId(),
+                        TitleIndex.owner(content.getSourceType(), content.getCreatorId()),
+                        content.getTitle(), content.getOtherTitle(), content.getDescription()));
+        return builder.build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+}
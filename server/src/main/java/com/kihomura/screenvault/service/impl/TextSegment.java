@@ -0,0 +1,419 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable inverted index of a set of contents for full-text search; see TextIndex.
+ * <p>
+ * Every content gets an ordinal in the segment. The terms of its title, other title and description (see
+ * TextAnalyzer) are counted with the field weights {@link #TITLE_WEIGHT}, {@link #OTHER_TITLE_WEIGHT} and
+ * {@link #DESCRIPTION_WEIGHT}, so a word of the title counts like three words of the description.
+ * The dictionary holds the sorted terms as UTF-8, one after the other. A term's posting list holds, per content
+ * containing it, the ordinal as delta to the previous one and the weighted term frequency, both as varints;
+ * most entries need two bytes.
+ * <p>
+ * The only mutable state is the set of deleted ordinals, which is guarded by the lock of TextSearchService.
+ */
+final class TextSegment {
+
+    static final int TITLE_WEIGHT = 3;
+    static final int OTHER_TITLE_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    private final int size;
+    // per ordinal
+    private final int[] ids;
+    private final int[] owners;
+    private final int[] lengths;
+    // ordinals sorted by content id
+    private final int[] byId;
+
+    // per term
+    private final byte[] terms;
+    private final int[] termOffsets;
+    private final int[] postingOffsets;
+    private final int[] documentFrequencies;
+    private final byte[] postings;
+
+    private final long[] deleted;
+    private int deletedCount;
+    private long liveLength;
+
+    /**
+     * Collects contents in ordinal order and builds a segment of them.
+     */
+    static final class Builder {
+
+        private int size;
+        private int[] ids = new int[16];
+        private int[] owners = new int[16];
+        private int[] lengths = new int[16];
+        private final Map<String, PostingList> postings = new HashMap<>();
+
+        /**
+         * @param owner see TitleIndex.owner
+         */
+        void add(int id, int owner, String title, String otherTitle, String description) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = count(frequencies, title, TITLE_WEIGHT)
+                    + count(frequencies, otherTitle, OTHER_TITLE_WEIGHT)
+                    + count(frequencies, description, DESCRIPTION_WEIGHT);
+            int ordinal = size++;
+            if (ordinal == ids.length) {
+                ids = Arrays.copyOf(ids, ordinal * 2);
+                owners = Arrays.copyOf(owners, ordinal * 2);
+                lengths = Arrays.copyOf(lengths, ordinal * 2);
+            }
+            ids[ordinal] = id;
+            owners[ordinal] = owner;
+            lengths[ordinal] = length;
+            for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                postings.computeIfAbsent(frequency.getKey(), term -> new PostingList())
+                        .add(ordinal, frequency.getValue());
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        TextSegment build() {
+            byte[][] keys = new byte[postings.size()][];
+            PostingList[] lists = new PostingList[keys.length];
+            int i = 0;
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                keys[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                lists[i++] = entry.getValue();
+            }
+            Integer[] order = new Integer[keys.length];
+            for (i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+            Output output = new Output(size, keys.length);
+            for (Integer term : order) {
+                output.addTerm(keys[term], lists[term].data, lists[term].length, lists[term].count);
+            }
+            return output.build(Arrays.copyOf(ids, size), Arrays.copyOf(owners, size), Arrays.copyOf(lengths, size));
+        }
+
+        private static int count(Map<String, Integer> frequencies, String text, int weight) {
+            List<String> terms = TextAnalyzer.terms(text);
+            for (String term : terms) {
+                frequencies.merge(term, weight, Integer::sum);
+            }
+            return terms.size() * weight;
+        }
+    }
+
+    /**
+     * A growing posting list of a Builder.
+     */
+    private static final class PostingList {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last;
+
+        void add(int ordinal, int frequency) {
+            if (length + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1) + 10);
+            }
+            length = writeVarint(data, length, count == 0 ? ordinal : ordinal - last);
+            length = writeVarint(data, length, frequency);
+            last = ordinal;
+            count++;
+        }
+    }
+
+    /**
+     * The dictionary and posting lists of a segment under construction, terms added in sorted order.
+     */
+    private static final class Output {
+
+        private final int[] termOffsets;
+        private final int[] postingOffsets;
+        private final int[] documentFrequencies;
+        private byte[] terms;
+        private byte[] postings;
+        private int termCount;
+
+        Output(int documents, int expectedTerms) {
+            termOffsets = new int[expectedTerms + 1];
+            postingOffsets = new int[expectedTerms + 1];
+            documentFrequencies = new int[expectedTerms];
+            terms = new byte[Math.max(16, expectedTerms * 8)];
+            postings = new byte[Math.max(16, documents * 16)];
+        }
+
+        void addTerm(byte[] term, byte[] data, int length, int documentFrequency) {
+            int termEnd = termOffsets[termCount];
+            if (termEnd + term.length > terms.length) {
+                terms = Arrays.copyOf(terms, Math.max(termEnd + term.length, terms.length + (terms.length >> 1)));
+            }
+            System.arraycopy(term, 0, terms, termEnd, term.length);
+            int postingEnd = postingOffsets[termCount];
+            if (postingEnd + length > postings.length) {
+                postings = Arrays.copyOf(postings,
+                        Math.max(postingEnd + length, postings.length + (postings.length >> 1)));
+            }
+            System.arraycopy(data, 0, postings, postingEnd, length);
+            documentFrequencies[termCount] = documentFrequency;
+            termCount++;
+            termOffsets[termCount] = termEnd + term.length;
+            postingOffsets[termCount] = postingEnd + length;
+        }
+
+        TextSegment build(int[] ids, int[] owners, int[] lengths) {
+            return new TextSegment(ids, owners, lengths,
+                    Arrays.copyOf(terms, termOffsets[termCount]),
+                    Arrays.copyOf(termOffsets, termCount + 1),
+                    Arrays.copyOf(postingOffsets, termCount + 1),
+                    Arrays.copyOf(documentFrequencies, termCount),
+                    Arrays.copyOf(postings, postingOffsets[termCount]));
+        }
+    }
+
+    private TextSegment(int[] ids, int[] owners, int[] lengths, byte[] terms, int[] termOffsets,
+                        int[] postingOffsets, int[] documentFrequencies, byte[] postings) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.owners = owners;
+        this.lengths = lengths;
+        this.terms = terms;
+        this.termOffsets = termOffsets;
+        this.postingOffsets = postingOffsets;
+        this.documentFrequencies = documentFrequencies;
+        this.postings = postings;
+        this.deleted = new long[(size + 63) >>> 6];
+
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = (long) ids[i] << 32 | i;
+            liveLength += lengths[i];
+        }
+        Arrays.sort(sorted);
+        byId = new int[size];
+        for (int i = 0; i < size; i++) {
+            byId[i] = (int) sorted[i];
+        }
+    }
+
+    /**
+     * Merges segments into one without their deleted contents, in the order of the segments.
+     * Posting lists are copied entry by entry with the ordinals renumbered; no text is analyzed again.
+     */
+    static TextSegment merge(List<TextSegment> segments) {
+        int total = 0;
+        for (TextSegment segment : segments) {
+            total += segment.liveCount();
+        }
+        int[] ids = new int[total];
+        int[] owners = new int[total];
+        int[] lengths = new int[total];
+        int[][] renumbered = new int[segments.size()][];
+        int next = 0;
+        int termTotal = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            TextSegment segment = segments.get(s);
+            renumbered[s] = new int[segment.size];
+            for (int ordinal = 0; ordinal < segment.size; ordinal++) {
+                if (segment.isDeleted(ordinal)) {
+                    renumbered[s][ordinal] = -1;
+                    continue;
+                }
+                ids[next] = segment.ids[ordinal];
+                owners[next] = segment.owners[ordinal];
+                lengths[next] = segment.lengths[ordinal];
+                renumbered[s][ordinal] = next++;
+            }
+            termTotal += segment.documentFrequencies.length;
+        }
+
+        // k-way merge of the sorted dictionaries; queue entries are {segment, term}
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> {
+            int difference = segments.get(a[0]).compareTerms(a[1], segments.get(b[0]), b[1]);
+            return difference != 0 ? difference : Integer.compare(a[0], b[0]);
+        });
+        for (int s = 0; s < segments.size(); s++) {
+            if (segments.get(s).documentFrequencies.length > 0) {
+                queue.add(new int[]{s, 0});
+            }
+        }
+        Output output = new Output(total, termTotal);
+        List<int[]> sameTerm = new ArrayList<>();
+        byte[] data = new byte[64];
+        while (!queue.isEmpty()) {
+            sameTerm.clear();
+            int[] first = queue.poll();
+            sameTerm.add(first);
+            while (!queue.isEmpty() && segments.get(queue.peek()[0]).compareTerms(queue.peek()[1],
+                    segments.get(first[0]), first[1]) == 0) {
+                sameTerm.add(queue.poll());
+            }
+
+            int length = 0;
+            int count = 0;
+            int last = 0;
+            for (int[] entry : sameTerm) {
+                TextSegment segment = segments.get(entry[0]);
+                int term = entry[1];
+                int position = segment.postingOffsets[term];
+                int ordinal = 0;
+                for (int i = 0; i < segment.documentFrequencies[term]; i++) {
+                    long delta = segment.readVarint(position);
+                    ordinal += (int) delta;
+                    long frequency = segment.readVarint((int) (delta >>> 32));
+                    position = (int) (frequency >>> 32);
+                    int target = renumbered[entry[0]][ordinal];
+                    if (target < 0) {
+                        continue;
+                    }
+                    if (length + 10 > data.length) {
+                        data = Arrays.copyOf(data, data.length * 2);
+                    }
+                    length = writeVarint(data, length, count == 0 ? target : target - last);
+                    length = writeVarint(data, length, (int) frequency);
+                    last = target;
+                    count++;
+                }
+                if (term + 1 < segment.documentFrequencies.length) {
+                    queue.add(new int[]{entry[0], term + 1});
+                }
+            }
+            if (count > 0) {
+                TextSegment segment = segments.get(first[0]);
+                output.addTerm(Arrays.copyOfRange(segment.terms, segment.termOffsets[first[1]],
+                        segment.termOffsets[first[1] + 1]), data, length, count);
+            }
+        }
+        return output.build(ids, owners, lengths);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int liveCount() {
+        return size - deletedCount;
+    }
+
+    /**
+     * @return the sum of the weighted lengths of the contents that are not deleted
+     */
+    long liveLength() {
+        return liveLength;
+    }
+
+    /**
+     * Marks a content as deleted.
+     *
+     * @return whether the segment held the content
+     */
+    boolean delete(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int ordinal = byId[middle];
+            if (ids[ordinal] < id) {
+                low = middle + 1;
+            } else if (ids[ordinal] > id) {
+                high = middle - 1;
+            } else if (isDeleted(ordinal)) {
+                return false;
+            } else {
+                deleted[ordinal >>> 6] |= 1L << ordinal;
+                deletedCount++;
+                liveLength -= lengths[ordinal];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isDeleted(int ordinal) {
+        return (deleted[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    int id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    int owner(int ordinal) {
+        return owners[ordinal];
+    }
+
+    int length(int ordinal) {
+        return lengths[ordinal];
+    }
+
+    /**
+     * @return the position of the term in the dictionary, or -1
+     */
+    int find(byte[] term) {
+        int low = 0;
+        int high = documentFrequencies.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int difference = Arrays.compareUnsigned(terms, termOffsets[middle], termOffsets[middle + 1],
+                    term, 0, term.length);
+            if (difference < 0) {
+                low = middle + 1;
+            } else if (difference > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of contents containing the term, deleted ones included
+     */
+    int documentFrequency(int term) {
+        return documentFrequencies[term];
+    }
+
+    int postingOffset(int term) {
+        return postingOffsets[term];
+    }
+
+    /**
+     * @return the value in the low and the position after it in the high 32 bits
+     */
+    long readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = postings[position++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return ((long) position << 32) | value;
+    }
+
+    private int compareTerms(int term, TextSegment other, int otherTerm) {
+        return Arrays.compareUnsigned(terms, termOffsets[term], termOffsets[term + 1],
+                other.terms, other.termOffsets[otherTerm], other.termOffsets[otherTerm + 1]);
+    }
+
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            data[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Brings the normalized title columns up to date while the application keeps serving: fills them for contents
+ * stored before they existed and recomputes them after TitleNormalizer changed.
+ * Rows are read in id order and only those whose stored keys differ are written back, in small batches,
+ * each its own short statement, so no long transaction holds locks.
+ * Rows edited in the meantime are skipped, because the edit normalized them already.
+ */
+@Service
+public class TitleBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TitleBackfillService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Value("${app.search.backfill.batch-size:2000}")
+    private int batchSize;
+
+    @Value("${app.search.backfill.pause-ms:0}")
+    private long pauseMs;
+
+    /**
+     * @return the number of updated rows
+     */
+    public long backfill() {
+        long start = System.currentTimeMillis();
+        long updated = 0;
+        long batches = 0;
+        int afterId = 0;
+        List<Content> batch;
+        while (!(batch = contentMapper.findTitlesAfter(afterId, batchSize)).isEmpty()) {
+            List<Content> changed = new ArrayList<>();
+            for (Content content : batch) {
+                String title = content.getNormalizedTitle();
+                String otherTitle = content.getNormalizedOtherTitle();
+                TitleNormalizer.apply(content);
+                if (!Objects.equals(title, content.getNormalizedTitle())
+                        || !Objects.equals(otherTitle, content.getNormalizedOtherTitle())) {
+                    changed.add(content);
+                }
+            }
+            if (!changed.isEmpty()) {
+                updated += contentMapper.updateNormalizedTitles(changed);
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+            if (++batches % 50 == 0) {
+                logger.info("Normalized titles of {} contents, up to id {}", updated, afterId);
+            }
+            if (pauseMs > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    logger.warn("Title backfill interrupted after {} contents, at id {}", updated, afterId);
+                    return updated;
+                }
+            }
+        }
+        logger.info("-----Normalized titles of {} contents in {} ms-----", updated, System.currentTimeMillis() - start);
+        return updated;
+    }
+}
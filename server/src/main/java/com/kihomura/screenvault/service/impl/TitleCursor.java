@@ -0,0 +1,45 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor of a title search page: the ranking key (see TitleIndex.key) of the last match shown,
+ * and a hash of the normalized query, so a cursor is not accepted for another query.
+ */
+final class TitleCursor {
+
+    private static final int LENGTH = Long.BYTES + Integer.BYTES;
+
+    private TitleCursor() {
+    }
+
+    static String encode(String normalizedQuery, long key) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH).putLong(key).putInt(normalizedQuery.hashCode());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return the ranking key stored in the cursor
+     * @throws IllegalArgumentException if the cursor is malformed or belongs to another query
+     */
+    static long decode(String normalizedQuery, String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        if (bytes.length != LENGTH) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long key = buffer.getLong();
+        int tier = (int) (key >>> 32);
+        if (buffer.getInt() != normalizedQuery.hashCode() || key < 0
+                || tier < TitleIndex.EXACT || tier > TitleIndex.MAX_TIER) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+        return key;
+    }
+}
@@ -0,0 +1,204 @@
+package com.kihomura.screenvault.service.impl;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sorted dictionary of the distinct normalized titles and other titles of a TitleIndex, with the ordinals
+ * carrying each, for typo-tolerant search.
+ * <p>
+ * {@link #match} walks the sorted titles as if they were a trie, keeping one row of the Levenshtein matrix per
+ * character of the current title. Consecutive titles share the rows of their common prefix, and once every value
+ * in a row exceeds the allowed distance, no longer title with that prefix can come closer, so all of them are
+ * decided at once and skipped with a binary search. That always happens at the query length plus the distance.
+ * Only the cells of a row within the distance of its diagonal are computed; the others are beyond it anyway. The work depends on the number of prefixes within reach
+ * of the query, not on the number of titles.
+ */
+final class TitleDictionary {
+
+    /**
+     * Receives the matches of {@link #match}.
+     */
+    interface Matches {
+
+        /**
+         * @param ordinal a TitleIndex ordinal whose title or other title matches
+         * @param distance the edit distance
+         * @param prefix whether the query is that close to a prefix of the title only, not the whole title
+         */
+        void accept(int ordinal, int distance, boolean prefix);
+    }
+
+    private final int size;
+    private final char[] titles;
+    private final int[] titleOffsets;
+    private final int[] ordinals;
+    private final int[] ordinalOffsets;
+
+    /**
+     * @param values the normalized titles, several per ordinal if they differ
+     * @param valueOrdinals the ordinal of each title
+     * @param count the number of titles
+     */
+    TitleDictionary(String[] values, int[] valueOrdinals, int count) {
+        Integer[] order = new Integer[count];
+        int characters = 0;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            characters += values[i].length();
+        }
+        Arrays.sort(order, (a, b) -> values[a].compareTo(values[b]));
+
+        int distinct = 0;
+        char[] data = new char[characters];
+        int[] offsets = new int[count + 1];
+        int[] ordinalList = new int[count];
+        int[] ordinalStarts = new int[count + 1];
+        int position = 0;
+        String previous = null;
+        for (int i = 0; i < count; i++) {
+            String value = values[order[i]];
+            if (!value.equals(previous)) {
+                value.getChars(0, value.length(), data, position);
+                position += value.length();
+                distinct++;
+                offsets[distinct] = position;
+                previous = value;
+            }
+            ordinalList[i] = valueOrdinals[order[i]];
+            ordinalStarts[distinct] = i + 1;
+        }
+        size = distinct;
+        titles = Arrays.copyOf(data, position);
+        titleOffsets = Arrays.copyOf(offsets, distinct + 1);
+        ordinals = ordinalList;
+        ordinalOffsets = Arrays.copyOf(ordinalStarts, distinct + 1);
+    }
+
+    /**
+     * Finds the titles within an edit distance of the query, or with a prefix within it.
+     *
+     * @param query a normalized query
+     * @param maxDistance the largest edit distance to accept
+     * @param matches receives the ordinals of the matching titles
+     */
+    void match(String query, int maxDistance, Matches matches) {
+        char[] pattern = query.toCharArray();
+        int m = pattern.length;
+        int maxDepth = m + maxDistance;
+        // values beyond the distance are all stored as far, which bounds each row to a band around its diagonal
+        int far = maxDistance + 1;
+        int[][] rows = new int[maxDepth + 1][m + 1];
+        // distance of the query to the prefix of the current title of each depth, and the smallest up to it
+        int[] distances = new int[maxDepth + 1];
+        int[] prefixBest = new int[maxDepth + 1];
+        for (int i = 0; i <= m; i++) {
+            rows[0][i] = Math.min(i, far);
+        }
+        distances[0] = Math.min(m, far);
+        prefixBest[0] = distances[0];
+
+        int computed = 0; // rows valid for the current title
+        int title = 0;
+        while (title < size) {
+            int start = titleOffsets[title];
+            int length = titleOffsets[title + 1] - start;
+            int depth = Math.min(computed, sharedPrefix(title));
+            // set once no deeper row can come within the distance: the titles with this prefix end the same way
+            boolean settled = false;
+            while (depth < Math.min(length, maxDepth)) {
+                char c = titles[start + depth];
+                int[] previous = rows[depth];
+                int[] row = rows[++depth];
+                int low = Math.max(1, depth - maxDistance);
+                int high = Math.min(m, depth + maxDistance);
+                row[0] = Math.min(depth, far);
+                row[low - 1] = low == 1 ? row[0] : far;
+                int rowMin = row[0];
+                for (int i = low; i <= high; i++) {
+                    int cost = pattern[i - 1] == c ? 0 : 1;
+                    int value = Math.min(Math.min(row[i - 1], previous[i]) + 1, previous[i - 1] + cost);
+                    value = Math.min(value, far);
+                    row[i] = value;
+                    rowMin = Math.min(rowMin, value);
+                }
+                if (high < m) {
+                    row[high + 1] = far;
+                }
+                distances[depth] = high == m ? row[m] : far;
+                prefixBest[depth] = Math.min(prefixBest[depth - 1], distances[depth]);
+                if (rowMin > maxDistance) {
+                    settled = true;
+                    break;
+                }
+            }
+            computed = depth;
+            // below the query length plus the distance, every row is beyond the distance
+            int end = settled || depth == maxDepth ? prefixEnd(title, depth) : title + 1;
+            int prefixDistance = prefixBest[depth];
+            if (prefixDistance <= maxDistance) {
+                // a title as close as its closest prefix is a whole match; the others of the range are longer
+                boolean whole = !settled && length == depth && distances[depth] == prefixDistance;
+                accept(title, prefixDistance, !whole, matches);
+                for (int t = title + 1; t < end; t++) {
+                    accept(t, prefixDistance, true, matches);
+                }
+            }
+            title = end;
+        }
+    }
+
+    private void accept(int title, int distance, boolean prefix, Matches matches) {
+        for (int o = ordinalOffsets[title]; o < ordinalOffsets[title + 1]; o++) {
+            matches.accept(ordinals[o], distance, prefix);
+        }
+    }
+
+    /**
+     * @return the length of the prefix the title shares with the one before it
+     */
+    private int sharedPrefix(int title) {
+        if (title == 0) {
+            return 0;
+        }
+        int a = titleOffsets[title - 1];
+        int aEnd = titleOffsets[title];
+        int b = aEnd;
+        int bEnd = titleOffsets[title + 1];
+        int shared = 0;
+        while (a + shared < aEnd && b + shared < bEnd && titles[a + shared] == titles[b + shared]) {
+            shared++;
+        }
+        return shared;
+    }
+
+    /**
+     * @return the first title after the given one that does not start with its first length characters
+     */
+    private int prefixEnd(int title, int length) {
+        int low = title + 1;
+        int high = size;
+        int start = titleOffsets[title];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (startsWith(middle, start, length)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean startsWith(int title, int prefixStart, int length) {
+        int start = titleOffsets[title];
+        if (titleOffsets[title + 1] - start < length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (titles[start + i] != titles[prefixStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,549 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.enums.SourceType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * N-gram inverted index over the normalized titles and other titles of contents, for substring search.
+ * <p>
+ * Every indexed content gets an ordinal in insertion order. Its normalized titles are appended to one byte array
+ * as UTF-8. The titles are cut into grams: two consecutive characters of Chinese, Japanese or Korean, whose words
+ * are short and written without spaces, and three consecutive characters of any other script.
+ * Grams are hashed into {@link #BUCKETS} posting lists of the ordinals whose titles contain them, delta- and
+ * varint-encoded into byte arrays; typical lists need one or two bytes per entry.
+ * A query decodes the posting lists of its grams, shortest first, keeps the ordinals present in all of them
+ * and verifies the remaining candidates against the stored titles, which also removes the matches of grams that
+ * merely share a bucket and of grams spread over both titles. Terms without a gram (fewer than three characters,
+ * or a single CJK character) are verified against every content.
+ * <p>
+ * Misspelled terms that match nothing can be looked up in a TitleDictionary of the distinct titles,
+ * built once the index is loaded; contents indexed after that are matched against a small dictionary of their own.
+ * <p>
+ * Changing or removing a content marks its ordinal as deleted; a changed content is appended again.
+ * Deleted ordinals stay in the posting lists and the dictionary until the index is rebuilt.
+ * Not thread-safe; see TitleSearchService.
+ */
+final class TitleIndex {
+
+    private static final int BUCKETS = 1 << 18;
+
+    /**
+     * Owner of official contents; custom contents are owned by their creator's id.
+     */
+    static final int OFFICIAL = 0;
+    static final int NO_OWNER = -1;
+
+    // match tiers, best first
+    static final int EXACT = 0;
+    static final int PREFIX = 1;
+    static final int SUBSTRING = 2;
+    // then typo-tolerant matches, see fuzzyTier
+    static final int FUZZY = 3;
+    private static final int MAX_DISTANCE = 2;
+    static final int MAX_TIER = FUZZY + 2 * MAX_DISTANCE + 1;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // per ordinal
+    private int[] ids;
+    private int[] owners;
+    private int[] titleStarts;
+    private int[] titleLengths;
+    private int[] otherTitleLengths;
+    private long[] deleted;
+    private int size;
+    private int deletedCount;
+
+    // titles and other titles of all ordinals, one after the other
+    private byte[] text;
+    private int textLength;
+
+    // per bucket: encoded ordinals, their byte length, entry count and last ordinal
+    private final byte[][] postings = new byte[BUCKETS][];
+    private final int[] postingLengths = new int[BUCKETS];
+    private final int[] postingCounts = new int[BUCKETS];
+    private final int[] postingLast = new int[BUCKETS];
+
+    // ordinal + 1 by content id, 0 for contents that are not indexed
+    private int[] ordinalById = new int[1024];
+
+    // distinct titles of the ordinals below dictionarySize, for fuzzy search
+    private TitleDictionary dictionary;
+    private int dictionarySize;
+
+    TitleIndex(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        ids = new int[capacity];
+        owners = new int[capacity];
+        titleStarts = new int[capacity];
+        titleLengths = new int[capacity];
+        otherTitleLengths = new int[capacity];
+        deleted = new long[(capacity + 63) >>> 6];
+        text = new byte[capacity * 24];
+        Arrays.fill(postingLast, -1);
+    }
+
+    /**
+     * @return the owner to index a content with: {@link #OFFICIAL}, or the creator of custom content
+     */
+    static int owner(SourceType sourceType, Integer creatorId) {
+        if (sourceType != SourceType.CUSTOM_DATA) {
+            return OFFICIAL;
+        }
+        return creatorId != null ? creatorId : NO_OWNER;
+    }
+
+    /**
+     * Indexes a content, replacing an earlier version of it.
+     *
+     * @param id the content id
+     * @param normalizedTitle the normalized title
+     * @param normalizedOtherTitle the normalized other title, or null
+     * @param owner see {@link #owner}
+     */
+    void put(int id, String normalizedTitle, String normalizedOtherTitle, int owner) {
+        remove(id);
+        byte[] title = bytes(normalizedTitle);
+        byte[] otherTitle = bytes(normalizedOtherTitle);
+
+        int ordinal = size++;
+        if (ordinal == ids.length) {
+            grow();
+        }
+        ids[ordinal] = id;
+        owners[ordinal] = owner;
+        titleStarts[ordinal] = textLength;
+        titleLengths[ordinal] = title.length;
+        otherTitleLengths[ordinal] = otherTitle.length;
+        appendText(title);
+        appendText(otherTitle);
+        addGrams(ordinal, normalizedTitle);
+        addGrams(ordinal, normalizedOtherTitle);
+
+        if (id >= ordinalById.length) {
+            ordinalById = Arrays.copyOf(ordinalById, Math.max(id + 1, ordinalById.length * 2));
+        }
+        ordinalById[id] = ordinal + 1;
+    }
+
+    void remove(int id) {
+        if (id < 0 || id >= ordinalById.length || ordinalById[id] == 0) {
+            return;
+        }
+        int ordinal = ordinalById[id] - 1;
+        deleted[ordinal >>> 6] |= 1L << ordinal;
+        deletedCount++;
+        ordinalById[id] = 0;
+    }
+
+    /**
+     * @return the number of indexed contents
+     */
+    int size() {
+        return size - deletedCount;
+    }
+
+    /**
+     * Finds the next page of official contents and custom contents of one creator whose normalized title
+     * or other title contains the term. Matches are ranked by {@link #key}: exact matches first, then prefix
+     * matches, then other substring matches, each by id. Only the best limit matches after the given key are kept,
+     * so the work per page does not depend on the page.
+     *
+     * @param term a normalized, non-empty search term
+     * @param creatorId the owner of the custom contents to include, see {@link #owner}
+     * @param after the key of the last match of the previous page, or -1 for the first page
+     * @param limit the number of matches to return
+     * @return the keys of the matches, in ranking order
+     */
+    long[] search(String term, int creatorId, long after, int limit) {
+        byte[] pattern = bytes(term);
+        int[] candidates = candidates(term);
+        int total = candidates == null ? size : candidates.length;
+        Page page = new Page(after, limit);
+        for (int i = 0; i < total; i++) {
+            int ordinal = candidates == null ? i : candidates[i];
+            if (!visible(ordinal, creatorId)) {
+                continue;
+            }
+            int start = titleStarts[ordinal];
+            int tier = Math.min(
+                    tier(start, titleLengths[ordinal], pattern),
+                    tier(start + titleLengths[ordinal], otherTitleLengths[ordinal], pattern));
+            if (tier != NO_MATCH) {
+                page.offer(key(tier, ids[ordinal]));
+            }
+        }
+        return page.keys();
+    }
+
+    /**
+     * Finds the next page of contents like {@link #search}, but of those whose normalized title or other title,
+     * or a prefix of it, is within a small edit distance of the term: one edit for terms of four to seven
+     * characters, two for longer terms; shorter terms have no fuzzy matches. Matches are ranked by distance,
+     * whole titles before prefixes, then by id, with tiers from {@link #FUZZY} on (see {@link #fuzzyTier}).
+     */
+    long[] fuzzySearch(String term, int creatorId, long after, int limit) {
+        int length = term.codePointCount(0, term.length());
+        int maxDistance = length < 4 ? 0 : length < 8 ? 1 : MAX_DISTANCE;
+        if (maxDistance == 0) {
+            return new long[0];
+        }
+        // contents indexed since the dictionary was built
+        TitleDictionary recent = dictionarySize < size ? dictionary(dictionarySize) : null;
+        Page page = new Page(after, limit);
+        // closer matches rank first, so a page filled within a distance needs no wider walk
+        int afterTier = (int) (after >> 32);
+        int from = afterTier >= FUZZY ? Math.max(1, (afterTier - FUZZY) / 2) : 1;
+        for (int distance = from; distance <= maxDistance && !page.isFull(); distance++) {
+            int allowed = distance;
+            TitleDictionary.Matches matches = (ordinal, found, prefix) -> {
+                if (!visible(ordinal, creatorId)) {
+                    return;
+                }
+                int tier = fuzzyTier(found, prefix);
+                long key = key(tier, ids[ordinal]);
+                // a content matching with both titles is ranked by the closer one
+                if (page.accepts(key) && (otherTitleLengths[ordinal] == 0
+                        || tier == bestFuzzyTier(ordinal, term, allowed))) {
+                    page.offer(key);
+                }
+            };
+            if (dictionary != null) {
+                dictionary.match(term, allowed, matches);
+            }
+            if (recent != null) {
+                recent.match(term, allowed, matches);
+            }
+        }
+        return page.keys();
+    }
+
+    /**
+     * Builds the dictionary for fuzzy search from the contents indexed so far; later ones are matched one by one.
+     */
+    void buildDictionary() {
+        dictionary = dictionary(0);
+        dictionarySize = size;
+    }
+
+    private TitleDictionary dictionary(int fromOrdinal) {
+        String[] values = new String[2 * (size - fromOrdinal)];
+        int[] valueOrdinals = new int[values.length];
+        int count = 0;
+        for (int ordinal = fromOrdinal; ordinal < size; ordinal++) {
+            if ((deleted[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                continue;
+            }
+            int start = titleStarts[ordinal];
+            int titleLength = titleLengths[ordinal];
+            int otherTitleLength = otherTitleLengths[ordinal];
+            values[count] = new String(text, start, titleLength, StandardCharsets.UTF_8);
+            valueOrdinals[count++] = ordinal;
+            if (otherTitleLength > 0) {
+                String otherTitle = new String(text, start + titleLength, otherTitleLength, StandardCharsets.UTF_8);
+                if (!otherTitle.equals(values[count - 1])) {
+                    values[count] = otherTitle;
+                    valueOrdinals[count++] = ordinal;
+                }
+            }
+        }
+        return new TitleDictionary(values, valueOrdinals, count);
+    }
+
+    /**
+     * @return the tier of a fuzzy match: by distance, a whole title before a prefix of one
+     */
+    private static int fuzzyTier(int distance, boolean prefix) {
+        return FUZZY + 2 * distance + (prefix ? 1 : 0);
+    }
+
+    /**
+     * @return the best fuzzy tier of both titles of an ordinal, or NO_MATCH
+     */
+    private int bestFuzzyTier(int ordinal, String term, int maxDistance) {
+        int start = titleStarts[ordinal];
+        int titleLength = titleLengths[ordinal];
+        return Math.min(
+                bestFuzzyTier(new String(text, start, titleLength, StandardCharsets.UTF_8), term, maxDistance),
+                bestFuzzyTier(new String(text, start + titleLength, otherTitleLengths[ordinal],
+                        StandardCharsets.UTF_8), term, maxDistance));
+    }
+
+    private static int bestFuzzyTier(String value, String term, int maxDistance) {
+        int m = term.length();
+        int[] previous = new int[m + 1];
+        int[] row = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int prefixDistance = m;
+        for (int j = 1; j <= value.length() && j <= m + maxDistance; j++) {
+            row[0] = j;
+            for (int i = 1; i <= m; i++) {
+                int cost = term.charAt(i - 1) == value.charAt(j - 1) ? 0 : 1;
+                row[i] = Math.min(Math.min(row[i - 1], previous[i]) + 1, previous[i - 1] + cost);
+            }
+            prefixDistance = Math.min(prefixDistance, row[m]);
+            int[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        if (prefixDistance > maxDistance) {
+            return NO_MATCH;
+        }
+        boolean whole = value.length() <= m + maxDistance && previous[m] == prefixDistance;
+        return fuzzyTier(prefixDistance, !whole);
+    }
+
+    private boolean visible(int ordinal, int creatorId) {
+        int owner = owners[ordinal];
+        return (owner == OFFICIAL || (owner == creatorId && owner != NO_OWNER))
+                && (deleted[ordinal >>> 6] & (1L << ordinal)) == 0;
+    }
+
+    /**
+     * The best limit keys after a given key, the worst kept key on top.
+     */
+    private static final class Page {
+
+        private final long after;
+        private final int limit;
+        private final PriorityQueue<Long> keys;
+
+        Page(long after, int limit) {
+            this.after = after;
+            this.limit = limit;
+            this.keys = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        }
+
+        boolean isFull() {
+            return keys.size() == limit;
+        }
+
+        /**
+         * @return whether the key would be kept if offered now
+         */
+        boolean accepts(long key) {
+            return key > after && (keys.size() < limit || key < keys.peek());
+        }
+
+        void offer(long key) {
+            if (!accepts(key) || keys.contains(key)) {
+                return;
+            }
+            keys.add(key);
+            if (keys.size() > limit) {
+                keys.poll();
+            }
+        }
+
+        /**
+         * @return the kept keys in ascending order
+         */
+        long[] keys() {
+            long[] sorted = new long[keys.size()];
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                sorted[i] = keys.poll();
+            }
+            return sorted;
+        }
+    }
+
+    /**
+     * @return the ranking key of a match: its tier in the high and its content id in the low 32 bits
+     */
+    static long key(int tier, int id) {
+        return (long) tier << 32 | id;
+    }
+
+    static int id(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Intersects the posting lists of the term's grams.
+     *
+     * @return the candidate ordinals in ascending order, or null if the term has no gram
+     */
+    private int[] candidates(String term) {
+        int[] buckets = grams(term);
+        if (buckets.length == 0) {
+            return null;
+        }
+        // shortest list first, so the candidates shrink as fast as possible
+        Integer[] order = new Integer[buckets.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = buckets[i];
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(postingCounts[a], postingCounts[b]));
+
+        int[] candidates = decode(order[0]);
+        int count = candidates.length;
+        for (int i = 1; i < order.length && count > 0; i++) {
+            count = retain(candidates, count, order[i]);
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    private int[] decode(int bucket) {
+        int[] ordinals = new int[postingCounts[bucket]];
+        byte[] data = postings[bucket];
+        int position = 0;
+        int ordinal = 0;
+        for (int i = 0; i < ordinals.length; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            ordinal += delta;
+            ordinals[i] = ordinal;
+        }
+        return ordinals;
+    }
+
+    /**
+     * Keeps the candidates that appear in the bucket's posting list, merging both in ascending order.
+     *
+     * @return the number of retained candidates, moved to the front of the array
+     */
+    private int retain(int[] candidates, int count, int bucket) {
+        byte[] data = postings[bucket];
+        int entries = postingCounts[bucket];
+        int position = 0;
+        int decoded = 0;
+        int ordinal = -1;
+        int retained = 0;
+        for (int i = 0; i < count; i++) {
+            int candidate = candidates[i];
+            while (ordinal < candidate && decoded < entries) {
+                int delta = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    delta |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b < 0);
+                ordinal = decoded++ == 0 ? delta : ordinal + delta;
+            }
+            if (ordinal < candidate) {
+                break; // posting list exhausted
+            }
+            if (ordinal == candidate) {
+                candidates[retained++] = candidate;
+            }
+        }
+        return retained;
+    }
+
+    private void addGrams(int ordinal, String value) {
+        for (int bucket : grams(value)) {
+            if (postingLast[bucket] == ordinal) {
+                continue;
+            }
+            int delta = postingLast[bucket] < 0 ? ordinal : ordinal - postingLast[bucket];
+            byte[] data = postings[bucket];
+            int length = postingLengths[bucket];
+            if (data == null) {
+                data = postings[bucket] = new byte[8];
+            } else if (length + 5 > data.length) {
+                data = postings[bucket] = Arrays.copyOf(data, data.length + (data.length >> 1) + 5);
+            }
+            while ((delta & ~0x7f) != 0) {
+                data[length++] = (byte) ((delta & 0x7f) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            postingLengths[bucket] = length;
+            postingCounts[bucket]++;
+            postingLast[bucket] = ordinal;
+        }
+    }
+
+    /**
+     * Cuts a normalized value into grams: bigrams of CJK characters and trigrams of other characters.
+     * A term found inside a title yields the same grams as that part of the title, because the kind of
+     * a gram only depends on its own characters.
+     *
+     * @return the distinct buckets of the value's grams
+     */
+    private static int[] grams(String value) {
+        if (value == null) {
+            return new int[0];
+        }
+        int[] codePoints = value.codePoints().toArray();
+        int[] buckets = new int[codePoints.length];
+        int count = 0;
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            int a = codePoints[i];
+            int b = codePoints[i + 1];
+            boolean cjk = TitleNormalizer.isCjk(a);
+            if (cjk != TitleNormalizer.isCjk(b)) {
+                continue;
+            }
+            int hash;
+            if (cjk) {
+                hash = (a * 0x9e3779b1 + b) * 0x85ebca6b;
+            } else if (i + 2 < codePoints.length && !TitleNormalizer.isCjk(codePoints[i + 2])) {
+                hash = ((a * 0x9e3779b1 + b) * 0x9e3779b1 + codePoints[i + 2]) * 0xc2b2ae35;
+            } else {
+                continue;
+            }
+            buckets[count++] = (hash ^ (hash >>> 15)) & (BUCKETS - 1);
+        }
+        return Arrays.stream(buckets, 0, count).distinct().toArray();
+    }
+
+    /**
+     * @return how the pattern matches the stored value: EXACT, PREFIX, SUBSTRING or NO_MATCH
+     */
+    private int tier(int start, int length, byte[] pattern) {
+        int last = start + length - pattern.length;
+        byte first = pattern[0];
+        for (int i = start; i <= last; i++) {
+            if (text[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && text[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                if (i > start) {
+                    return SUBSTRING;
+                }
+                return length == pattern.length ? EXACT : PREFIX;
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private void appendText(byte[] value) {
+        if (textLength + value.length > text.length) {
+            text = Arrays.copyOf(text, Math.max(textLength + value.length, text.length + (text.length >> 1)));
+        }
+        System.arraycopy(value, 0, text, textLength, value.length);
+        textLength += value.length;
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        titleStarts = Arrays.copyOf(titleStarts, capacity);
+        titleLengths = Arrays.copyOf(titleLengths, capacity);
+        otherTitleLengths = Arrays.copyOf(otherTitleLengths, capacity);
+        deleted = Arrays.copyOf(deleted, (capacity + 63) >>> 6);
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+}
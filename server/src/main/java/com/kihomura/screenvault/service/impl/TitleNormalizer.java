@@ -0,0 +1,115 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Computes the search keys stored next to title and other title: the letters and digits of the value, case- and
+ * accent-folded. Searches normalize their input the same way, so "Spider-Man" is found by "spider man",
+ * "Amélie" by "amelie", "ｶﾞﾝﾀﾞﾑ" by "ガンダム" and "Apollo 13" by "apollo 13".
+ * <p>
+ * ASCII values keep their letters a to z in lower case and their digits. Other values go through NFKD, which splits
+ * accents off their letters and maps compatibility forms (full-width Latin and digits, half-width kana, ligatures)
+ * to plain ones, then full case folding. Everything but letters and digits is dropped, and so are combining marks,
+ * except after Chinese, Japanese and Korean characters, where they are part of the character (kana voicing marks).
+ * NFC composes the rest again, including Hangul syllables.
+ */
+public final class TitleNormalizer {
+
+    // length of the normalized title columns; NFKD can expand a few compatibility characters
+    private static final int MAX_LENGTH = 500;
+
+    private TitleNormalizer() {
+    }
+
+    /**
+     * @param value a title, or null
+     * @return the folded letters and digits of the value, or null for null
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return normalizeUnicode(value);
+            }
+        }
+        return normalizeAscii(value);
+    }
+
+    /**
+     * Fills the normalized title columns of a content from its title and other title.
+     */
+    public static void apply(Content content) {
+        content.setNormalizedTitle(normalize(content.getTitle()));
+        content.setNormalizedOtherTitle(normalize(content.getOtherTitle()));
+    }
+
+    /**
+     * @return whether the code point belongs to a script written without spaces between words,
+     * which the search index splits into bigrams instead of trigrams
+     */
+    static boolean isCjk(int codePoint) {
+        if (codePoint < 0x2e80) {
+            return false;
+        }
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL
+                || script == Character.UnicodeScript.BOPOMOFO;
+    }
+
+    private static String normalizeAscii(String value) {
+        StringBuilder normalized = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean kept = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+            if (kept && normalized == null) {
+                continue;
+            }
+            if (normalized == null) {
+                normalized = new StringBuilder(value.length()).append(value, 0, i);
+            }
+            if (kept) {
+                normalized.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                normalized.append((char) (c + ('a' - 'A')));
+            }
+        }
+        return normalized != null ? normalized.toString() : value;
+    }
+
+    private static String normalizeUnicode(String value) {
+        // upper then lower case folds ß to ss, like full case folding; lower case turns a final sigma into ς
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFKD)
+                .toUpperCase(Locale.ROOT)
+                .toLowerCase(Locale.ROOT)
+                .replace('\u03c2', '\u03c3');
+        StringBuilder kept = new StringBuilder(decomposed.length());
+        boolean afterCjk = false;
+        for (int i = 0; i < decomposed.length(); ) {
+            int codePoint = decomposed.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.getType(codePoint) == Character.NON_SPACING_MARK) {
+                if (afterCjk) {
+                    kept.appendCodePoint(codePoint);
+                }
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                kept.appendCodePoint(codePoint);
+                afterCjk = isCjk(codePoint);
+            } else {
+                afterCjk = false;
+            }
+        }
+        String normalized = Normalizer.normalize(kept, Normalizer.Form.NFC);
+        if (normalized.length() > MAX_LENGTH && normalized.codePointCount(0, normalized.length()) > MAX_LENGTH) {
+            normalized = normalized.substring(0, normalized.offsetByCodePoints(0, MAX_LENGTH));
+        }
+        return normalized;
+    }
+}
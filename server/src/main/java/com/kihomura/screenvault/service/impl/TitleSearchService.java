@@ -0,0 +1,181 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Substring title search over an in-memory TitleIndex of all contents.
+ * <p>
+ * The index is built on a background thread once the application is ready, from one consistent read of the
+ * contents table, and rebuilt after in-app imports and every app.search.index.refresh-minutes, so changes made
+ * by other processes (sync, swap, CLI imports) show up eventually. Custom contents saved or deleted through
+ * ContentServiceImpl are applied right away, also to an index that is being rebuilt.
+ * Terms that match nothing as typed are looked up again with a few typos allowed (app.search.index.fuzzy).
+ * Until the first build has finished, {@link #search} returns null and callers fall back to the database.
+ */
+@Service
+public class TitleSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TitleSearchService.class);
+
+    @Autowired
+    private ContentMapper contentMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final boolean fuzzy;
+    private final IndexRebuilder rebuilder;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private TitleIndex index;
+    // changes made while a rebuild reads the table, applied to the new index before it replaces the old one
+    private List<Consumer<TitleIndex>> pending;
+
+    public TitleSearchService(@Value("${app.search.index.enabled:true}") boolean enabled,
+                              @Value("${app.search.index.refresh-minutes:60}") long refreshMinutes,
+                              @Value("${app.search.index.fuzzy:true}") boolean fuzzy) {
+        this.fuzzy = fuzzy;
+        this.rebuilder = new IndexRebuilder("title-index", enabled, refreshMinutes, this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilder.start();
+    }
+
+    /**
+     * Schedules a rebuild, e.g. after an import changed the catalog.
+     */
+    public void refresh() {
+        rebuilder.refresh();
+    }
+
+    /**
+     * @param normalizedTitle a non-empty term normalized with TitleNormalizer
+     * @param creatorId the user whose custom contents are searched besides the official ones
+     * @param after the ranking key of the last match of the previous page, or -1 for the first page
+     * @param limit the page size
+     * @return the ranking keys (see TitleIndex.key) of the next matches whose normalized title or other title
+     * contains the term, or if none does, of the fuzzy matches; null while the index is not built yet
+     */
+    public long[] search(String normalizedTitle, int creatorId, long after, int limit) {
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                return null;
+            }
+            if (!fuzzy || after < TitleIndex.key(TitleIndex.FUZZY, 0)) {
+                long[] keys = index.search(normalizedTitle, creatorId, after, limit);
+                // a term found as typed never gets fuzzy matches
+                if (keys.length > 0 || after >= 0 || !fuzzy) {
+                    return keys;
+                }
+            }
+            return index.fuzzySearch(normalizedTitle, creatorId, after, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a saved content with its new titles.
+     */
+    public void saved(Content content) {
+        if (content.getId() == null) {
+            return;
+        }
+        int id = content.getId();
+        String title = TitleNormalizer.normalize(content.getTitle());
+        String otherTitle = TitleNormalizer.normalize(content.getOtherTitle());
+        int owner = TitleIndex.owner(content.getSourceType(), content.getCreatorId());
+        apply(index -> index.put(id, title, otherTitle, owner));
+    }
+
+    public void deleted(int contentId) {
+        apply(index -> index.remove(contentId));
+    }
+
+    private void apply(Consumer<TitleIndex> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        int expectedSize;
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+            expectedSize = index != null ? index.size() : 1 << 16;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        TitleIndex rebuilt = null;
+        try {
+            rebuilt = read(expectedSize);
+            if (fuzzy) {
+                rebuilt.buildDictionary();
+            }
+        } catch (Exception e) {
+            logger.error("Building the title index failed: ", e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (rebuilt != null) {
+                for (Consumer<TitleIndex> change : pending) {
+                    change.accept(rebuilt);
+                }
+                index = rebuilt;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rebuilt != null) {
+            logger.info("Title index built with {} contents in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private TitleIndex read(int expectedSize) {
+        TitleIndex rebuilt = new TitleIndex(expectedSize);
+        IndexRebuilder.stream(transactionManager, contentMapper::streamSearchTitles, content ->
+                rebuilt.put(content.getId(),
+                        TitleNormalizer.normalize(content.getTitle()),
+                        TitleNormalizer.normalize(content.getOtherTitle()),
+                        TitleIndex.owner(content.getSourceType(), content.getCreatorId())));
+        return rebuilt;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdown();
+    }
+}
@@ -51,8 +51,15 @@ CREATE TABLE IF NOT EXISTS `contents` (
                             `source_type` enum('CUSTOM_DATA','OFFICIAL_DATA') DEFAULT NULL,
                             `title` varchar(500) NOT NULL,
                             `creator_id` int DEFAULT NULL,
+                            `fingerprint` char(32) DEFAULT NULL,
+                            `row_hash` bigint DEFAULT NULL,
+                            `normalized_title` varchar(500) DEFAULT NULL,
+                            `normalized_other_title` varchar(500) DEFAULT NULL,
                             PRIMARY KEY (`id`),
+                            UNIQUE KEY `uk_contents_fingerprint` (`fingerprint`),
                             KEY `idx_contents_creator` (`creator_id`),
+                            KEY `idx_contents_normalized_title` (`normalized_title`),
+                            KEY `idx_contents_normalized_other_title` (`normalized_other_title`),
                             CONSTRAINT `fk_contents_user` FOREIGN KEY (`creator_id`) REFERENCES `users` (`id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=1298927 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
@@ -126,6 +133,36 @@ CREATE TABLE IF NOT EXISTS `tag_content` (
                                CONSTRAINT `fk_tc_tag` FOREIGN KEY (`tag_id`) REFERENCES `tags` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 
+-- 9. 导入表：import_checkpoints
+CREATE TABLE IF NOT EXISTS `import_checkpoints` (
+                                      `id` int NOT NULL AUTO_INCREMENT,
+                                      `file_name` varchar(255) NOT NULL,
+                                      `chunk_no` int NOT NULL,
+                                      `start_line` int NOT NULL,
+                                      `end_line` int NOT NULL,
+                                      `end_offset` bigint DEFAULT NULL,
+                                      `row_count` int NOT NULL,
+                                      `committed_at` datetime(6) DEFAULT NULL,
+                                      PRIMARY KEY (`id`),
+                                      KEY `idx_ic_file` (`file_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- 10. 导入表：import_leases
+CREATE TABLE IF NOT EXISTS `import_leases` (
+                                 `id` int NOT NULL AUTO_INCREMENT,
+                                 `file_name` varchar(255) NOT NULL,
+                                 `file_size` bigint NOT NULL,
+                                 `range_no` int NOT NULL,
+                                 `start_offset` bigint NOT NULL,
+                                 `end_offset` bigint NOT NULL,
+                                 `committed_offset` bigint NOT NULL,
+                                 `status` enum('PENDING','DONE') NOT NULL DEFAULT 'PENDING',
+                                 `owner` varchar(128) DEFAULT NULL,
+                                 `lease_until` datetime(6) DEFAULT NULL,
+                                 PRIMARY KEY (`id`),
+                                 UNIQUE KEY `uk_il_range` (`file_name`,`file_size`,`range_no`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
 /*!40014 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS */;
 /*!40014 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS */;
 /*!40101 SET CHARACTER_SET_CLIENT=@OLD_CHARACTER_SET_CLIENT */;
@@ -0,0 +1,78 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.entity.Content;
+import com.kihomura.screenvault.mapper.ContentMapper;
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSyncServiceTest {
+
+    private static final String HEADER = "title,other_title,country,language,description,image,release_date,genre,"
+            + "category,source_type\n";
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ContentMapper contentMapper;
+
+    @Mock
+    private CsvImportService csvImportService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Cursor<Content> cursor;
+
+    @InjectMocks
+    private CatalogSyncService service;
+
+    @Test
+    void syncsGzipOnlyCatalogFiles() throws IOException {
+        gzip("tv_shows.csv", HEADER + "Show,,US,en,\"A show, with a comma\",,2001-01-01,DRAMA,TV_SHOW,OFFICIAL_DATA\n");
+        gzip("movies.csv", HEADER + "Movie,,FR,fr,,,2002-02-02,COMEDY,MOVIE,OFFICIAL_DATA\n"
+                + ",,FR,fr,,,2002-02-02,COMEDY,MOVIE,OFFICIAL_DATA\n");
+        when(contentMapper.findRowHashes(anyList())).thenReturn(List.of());
+        when(contentMapper.streamOfficialFingerprints()).thenReturn(cursor);
+        when(cursor.iterator()).thenReturn(Collections.emptyIterator());
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        CatalogSyncService.SyncStats stats = service.syncAllData(dir);
+
+        assertEquals(2, stats.written());
+        assertEquals(1, stats.rejected());
+        verify(contentMapper, times(2)).findRowHashes(anyList());
+    }
+
+    private void gzip(String fileName, String csv) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(dir.resolve(fileName + ".gz")))) {
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.enums.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvImportServiceTest {
+
+    private static final String HEADER = "reason,source_offset,title,other_title,country,language,description,"
+            + "image,release_date,genre,category,source_type";
+    private static final String STILL_BAD = ",Other,US,en,\"A quoted, description\",img.jpg,2001-01-01,Drama,MOVIE,OFFICIAL";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayKeepsStillRejectedRowsInCatalogLayout() throws IOException {
+        Path deadLetterPath = dir.resolve("contents_movies.csv");
+        Files.writeString(deadLetterPath, HEADER + "\nEMPTY_TITLE,42," + STILL_BAD + "\n", StandardCharsets.UTF_8);
+        CsvImportService service = new CsvImportService();
+
+        for (int replay = 0; replay < 2; replay++) {
+            assertEquals(0, service.replayRejected(deadLetterPath, "movies.csv", Category.MOVIE));
+
+            List<String> lines = Files.readAllLines(deadLetterPath, StandardCharsets.UTF_8);
+            assertEquals(List.of(HEADER, "EMPTY_TITLE,42," + STILL_BAD), lines);
+            CsvTokenizer row = new CsvTokenizer(StandardCharsets.UTF_8.encode(lines.get(1)), true);
+            assertTrue(row.next());
+            assertEquals(DeadLetterWriter.LEADING_COLUMNS + ContentRowMapper.COLUMN_COUNT, row.fieldCount());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvTokenizerTest {
+
+    @Test
+    void splitsRecordsOnLfAndCrLf() {
+        CsvTokenizer tokenizer = tokenizer("a,b,c\r\nd,e,f\ng,h,i", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "a", "b", "c");
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "d", "e", "f");
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "g", "h", "i");
+        assertFalse(tokenizer.next());
+        assertFalse(tokenizer.isIncomplete());
+    }
+
+    @Test
+    void dropsCarriageReturnBeforeEndOfInput() {
+        CsvTokenizer tokenizer = tokenizer("a,b\r", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "a", "b");
+    }
+
+    @Test
+    void unquotesSeparatorsAndEscapedQuotes() {
+        CsvTokenizer tokenizer = tokenizer("\"x, y\",\"he said \"\"hi\"\"\",\"back\\\"slash\"\n", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "x, y", "he said \"hi\"", "back\"slash");
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesAsLf() {
+        CsvTokenizer tokenizer = tokenizer("\"line1\r\nline2\nline3\",z\r\nnext\r\n", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "line1\nline2\nline3", "z");
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "next");
+    }
+
+    @Test
+    void ignoresWhitespaceBeforeOpeningQuote() {
+        CsvTokenizer tokenizer = tokenizer("a,  \"quoted\",b\n", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "a", "quoted", "b");
+    }
+
+    @Test
+    void reportsEmptyFieldsAsNull() {
+        CsvTokenizer tokenizer = tokenizer("a,,c,\n", true);
+
+        assertTrue(tokenizer.next());
+        assertEquals(4, tokenizer.fieldCount());
+        assertTrue(tokenizer.isEmpty(1));
+        assertNull(tokenizer.field(1));
+        assertNull(tokenizer.field(3));
+    }
+
+    @Test
+    void closesQuoteLeftOpenAtEndOfInput() {
+        CsvTokenizer tokenizer = tokenizer("a,\"open,field\nstill open", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "a", "open,field\nstill open");
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    void stopsAtRecordRunningPastBuffer() {
+        CsvTokenizer tokenizer = tokenizer("a,b\n\"c\nd\",e", false);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "a", "b");
+        assertFalse(tokenizer.next());
+        assertTrue(tokenizer.isIncomplete());
+        assertEquals(4, tokenizer.recordStart());
+    }
+
+    @Test
+    void returnsRawRecordWithoutLineBreak() {
+        CsvTokenizer tokenizer = tokenizer("\"x\",y\r\nz\n", true);
+
+        assertTrue(tokenizer.next());
+        assertEquals("\"x\",y", StandardCharsets.UTF_8.decode(tokenizer.record()).toString());
+        assertEquals(7, tokenizer.position());
+    }
+
+    @Test
+    void leavesDroppedFieldsOutOfRawRecord() {
+        CsvTokenizer tokenizer = tokenizer("EMPTY_TITLE,42,\"x, y\",z\r\nA,1\n", true);
+
+        assertTrue(tokenizer.next());
+        tokenizer.dropLeadingFields(2);
+        assertFields(tokenizer, "x, y", "z");
+        assertEquals("\"x, y\",z", StandardCharsets.UTF_8.decode(tokenizer.record()).toString());
+        assertEquals(0, tokenizer.recordStart());
+
+        assertTrue(tokenizer.next());
+        tokenizer.dropLeadingFields(2);
+        assertEquals(0, tokenizer.fieldCount());
+        assertEquals("", StandardCharsets.UTF_8.decode(tokenizer.record()).toString());
+    }
+
+    @Test
+    void decodesUtf8() {
+        CsvTokenizer tokenizer = tokenizer("Amélie,\"東京, 物語\"\n", true);
+
+        assertTrue(tokenizer.next());
+        assertFields(tokenizer, "Amélie", "東京, 物語");
+    }
+
+    private static CsvTokenizer tokenizer(String csv, boolean endOfInput) {
+        return new CsvTokenizer(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), endOfInput);
+    }
+
+    private static void assertFields(CsvTokenizer tokenizer, String... expected) {
+        assertEquals(expected.length, tokenizer.fieldCount());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], tokenizer.field(i));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdBitmapTest {
+
+    private static final int CHUNK = 1 << 16;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void andOrAndCardinalityMatchBitSet() {
+        for (int round = 0; round < 20; round++) {
+            BitSet[] sets = {randomSet(), randomSet(), randomSet()};
+            IdBitmap[] bitmaps = {of(sets[0]), of(sets[1]), of(sets[2])};
+
+            for (int i = 0; i < sets.length; i++) {
+                assertEquals(sets[i].cardinality(), bitmaps[i].cardinality());
+                assertArrayEquals(sets[i].stream().toArray(), all(bitmaps[i]));
+                for (int j = 0; j < sets.length; j++) {
+                    BitSet and = (BitSet) sets[i].clone();
+                    and.and(sets[j]);
+                    assertArrayEquals(and.stream().toArray(), all(bitmaps[i].and(bitmaps[j])));
+                    assertEquals(and.cardinality(), bitmaps[i].andCardinality(bitmaps[j]));
+                    assertEquals(and.cardinality(), bitmaps[i].andCardinality(bitmaps[j].expanded()));
+                }
+            }
+
+            BitSet or = new BitSet();
+            for (BitSet set : sets) {
+                or.or(set);
+            }
+            assertArrayEquals(or.stream().toArray(), all(IdBitmap.or(List.of(bitmaps))));
+            assertArrayEquals(sets[0].stream().toArray(), all(IdBitmap.or(List.of(bitmaps[0]))));
+            assertTrue(IdBitmap.or(List.of()).isEmpty());
+        }
+    }
+
+    @Test
+    void pageMatchesBitSet() {
+        for (int round = 0; round < 20; round++) {
+            BitSet set = randomSet();
+            IdBitmap bitmap = of(set);
+            int max = Math.max(0, set.length());
+            for (int p = 0; p < 50; p++) {
+                int afterId = random.nextInt(max + 2) - 1;
+                int limit = 1 + random.nextInt(p % 2 == 0 ? 10 : 10_000);
+                assertArrayEquals(page(set, afterId, limit), bitmap.page(afterId, limit),
+                        "after " + afterId + ", limit " + limit);
+            }
+            // from the first page to the last, in steps ending exactly on set ids
+            int after = -1;
+            List<Integer> paged = new ArrayList<>();
+            for (int[] ids; (ids = bitmap.page(after, 1000)).length > 0; after = ids[ids.length - 1]) {
+                for (int id : ids) {
+                    paged.add(id);
+                }
+            }
+            assertArrayEquals(set.stream().toArray(), paged.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * @return ids over several chunks: empty, sparse ones stored as arrays, and dense ones stored as bitmaps,
+     * including chunks right at the array limit of 4096
+     */
+    private BitSet randomSet() {
+        BitSet set = new BitSet();
+        for (int chunk = 0; chunk < 6; chunk++) {
+            int base = chunk * CHUNK;
+            switch (random.nextInt(5)) {
+                case 0 -> {
+                }
+                case 1 -> addRandom(set, base, 1 + random.nextInt(100));
+                case 2 -> addRandom(set, base, 4095 + random.nextInt(3));
+                case 3 -> addRandom(set, base, 5000 + random.nextInt(30_000));
+                default -> set.set(base + random.nextInt(100), base + CHUNK - random.nextInt(100));
+            }
+        }
+        return set;
+    }
+
+    private void addRandom(BitSet set, int base, int count) {
+        BitSet chunk = new BitSet(CHUNK);
+        while (chunk.cardinality() < count) {
+            chunk.set(random.nextInt(CHUNK));
+        }
+        chunk.stream().forEach(low -> set.set(base + low));
+    }
+
+    private static IdBitmap of(BitSet set) {
+        int[] ids = set.stream().toArray();
+        return IdBitmap.of(ids, ids.length);
+    }
+
+    private static int[] all(IdBitmap bitmap) {
+        return bitmap.page(-1, bitmap.cardinality());
+    }
+
+    private static int[] page(BitSet set, int afterId, int limit) {
+        return set.stream().filter(id -> id > afterId).limit(limit).toArray();
+    }
+}
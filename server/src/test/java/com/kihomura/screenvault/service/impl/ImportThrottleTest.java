@@ -0,0 +1,54 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportThrottleTest {
+
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void halvesBatchOverBudgetAndGrowsItBackWithin() {
+        ImportThrottle.Run run = throttle(500).start(5000);
+        assertEquals(2750, run.batchSize());
+
+        run.committed(SLOW);
+        assertEquals(1375, run.batchSize());
+        for (int i = 0; i < 5; i++) {
+            run.committed(SLOW);
+        }
+        assertEquals(500, run.batchSize());
+        for (int i = 0; i < 100; i++) {
+            run.committed(0);
+        }
+        assertEquals(5000, run.batchSize());
+    }
+
+    @Test
+    void keepsBatchWithinLargestSizeWhenMinimumIsAboveIt() {
+        ImportThrottle.Run run = throttle(20_000).start(5000);
+
+        assertEquals(5000, run.batchSize());
+        for (int i = 0; i < 10; i++) {
+            run.committed(i % 3 == 0 ? 0 : SLOW);
+            assertTrue(run.batchSize() <= 5000, "batch " + run.batchSize());
+        }
+    }
+
+    @Test
+    void keepsLargestBatchWhenDisabled() {
+        ImportThrottle throttle = new ImportThrottle(false, 250, 5, 20_000, 0, null);
+        ImportThrottle.Run run = throttle.start(5000);
+
+        run.committed(SLOW);
+        assertEquals(5000, run.batchSize());
+    }
+
+    private static ImportThrottle throttle(int minBatchSize) {
+        return new ImportThrottle(true, 250, 5, minBatchSize, 0, null);
+    }
+}
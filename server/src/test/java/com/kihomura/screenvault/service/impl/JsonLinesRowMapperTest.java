@@ -0,0 +1,50 @@
+package com.kihomura.screenvault.service.impl;
+
+import com.kihomura.screenvault.enums.Category;
+import com.kihomura.screenvault.service.impl.ImportErrorCounters.Issue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonLinesRowMapperTest {
+
+    private final JsonLinesRowMapper mapper = new JsonLinesRowMapper();
+
+    @Test
+    void writesRejectedRecordAsCatalogCsvRow() {
+        JsonLineScanner row = scanner("{\"genre\":\"DRAMA\",\"title\":\"\",\"description\":\"say \\\"hi\\\", twice\","
+                + "\"tags\":[\"x\"],\"release_date\":\"2001-01-01\",\"category\":\"MOVIE\"}\n");
+
+        assertNull(mapper.map(row, Category.MOVIE, new ImportErrorCounters()));
+        assertEquals(Issue.EMPTY_TITLE, mapper.rejection(row));
+
+        CsvTokenizer csv = new CsvTokenizer(mapper.deadLetterRecord(row), true);
+        assertTrue(csv.next());
+        assertEquals(ContentRowMapper.COLUMN_COUNT, csv.fieldCount());
+        assertNull(csv.field(0));
+        assertEquals("say \"hi\", twice", csv.field(4));
+        assertEquals("2001-01-01", csv.field(6));
+        assertEquals("DRAMA", csv.field(7));
+        assertEquals("MOVIE", csv.field(8));
+        assertNull(csv.field(9));
+    }
+
+    @Test
+    void reportsMalformedRecordAsParseError() {
+        JsonLineScanner row = scanner("[\"not an object\"]\n");
+
+        assertEquals(Issue.PARSE_ERROR, mapper.rejection(row));
+        assertNull(mapper.deadLetterRecord(row));
+    }
+
+    private static JsonLineScanner scanner(String json) {
+        JsonLineScanner row = new JsonLineScanner(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), true);
+        assertTrue(row.next());
+        return row;
+    }
+}
@@ -0,0 +1,149 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TitleIndexTest {
+
+    private static final String[] WORDS = {
+            "the", "star", "war", "wars", "return", "king", "ring", "man", "spider", "iron", "a", "of", "x",
+            "東京", "物語", "アメリ", "1917", "300"
+    };
+    // TitleIndex.owner of custom content without a creator
+    private static final int NO_OWNER = -1;
+    private static final int[] CREATORS = {TitleIndex.OFFICIAL, TitleIndex.OFFICIAL, TitleIndex.OFFICIAL, 7, 8, NO_OWNER};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void searchMatchesLinearScan() {
+        TitleIndex index = new TitleIndex(16);
+        Map<Integer, Entry> entries = new TreeMap<>();
+        for (int id = 1; id <= 3000; id += 1 + random.nextInt(2)) {
+            put(index, entries, id);
+        }
+        // changed and removed contents must not match by their old titles
+        List<Integer> ids = new ArrayList<>(entries.keySet());
+        for (int i = 0; i < 300; i++) {
+            int id = ids.get(random.nextInt(ids.size()));
+            if (random.nextBoolean()) {
+                put(index, entries, id);
+            } else {
+                index.remove(id);
+                entries.remove(id);
+            }
+        }
+        assertEquals(entries.size(), index.size());
+
+        for (int q = 0; q < 300; q++) {
+            String term = term(entries);
+            for (int creatorId : new int[]{7, NO_OWNER}) {
+                long[] expected = scan(entries, term, creatorId);
+                assertArrayEquals(expected, index.search(term, creatorId, -1, Math.max(1, expected.length)), term);
+                assertArrayEquals(expected, pageThrough(index, term, creatorId, 1 + random.nextInt(20)), term);
+            }
+        }
+    }
+
+    @Test
+    void ranksExactBeforePrefixBeforeSubstring() {
+        TitleIndex index = new TitleIndex(16);
+        index.put(1, "thespiderman", null, TitleIndex.OFFICIAL);
+        index.put(2, "spiderman", null, TitleIndex.OFFICIAL);
+        index.put(3, "ironman", "spidermanreturns", TitleIndex.OFFICIAL);
+        index.put(4, "spiderman", null, 7);
+
+        long[] keys = index.search("spiderman", 8, -1, 10);
+
+        assertArrayEquals(new long[]{
+                TitleIndex.key(TitleIndex.EXACT, 2),
+                TitleIndex.key(TitleIndex.PREFIX, 3),
+                TitleIndex.key(TitleIndex.SUBSTRING, 1)
+        }, keys);
+    }
+
+    private void put(TitleIndex index, Map<Integer, Entry> entries, int id) {
+        Entry entry = new Entry(title(), random.nextInt(3) == 0 ? title() : null,
+                CREATORS[random.nextInt(CREATORS.length)]);
+        index.put(id, entry.title, entry.otherTitle, entry.owner);
+        entries.put(id, entry);
+    }
+
+    private String title() {
+        StringBuilder title = new StringBuilder();
+        for (int words = 1 + random.nextInt(4); words > 0; words--) {
+            title.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    /**
+     * @return a word, a piece of an indexed title (also shorter than a gram), or a term found nowhere
+     */
+    private String term(Map<Integer, Entry> entries) {
+        int kind = random.nextInt(10);
+        if (kind < 3) {
+            return WORDS[random.nextInt(WORDS.length)];
+        }
+        if (kind == 9) {
+            return "zzz";
+        }
+        List<Entry> values = new ArrayList<>(entries.values());
+        String title = values.get(random.nextInt(values.size())).title;
+        int start = random.nextInt(title.length());
+        int end = start + 1 + random.nextInt(Math.min(8, title.length() - start));
+        return title.substring(start, end);
+    }
+
+    private static long[] scan(Map<Integer, Entry> entries, String term, int creatorId) {
+        List<Long> keys = new ArrayList<>();
+        entries.forEach((id, entry) -> {
+            if (entry.owner != TitleIndex.OFFICIAL && (entry.owner != creatorId || creatorId == NO_OWNER)) {
+                return;
+            }
+            int tier = Math.min(tier(entry.title, term), tier(entry.otherTitle, term));
+            if (tier != Integer.MAX_VALUE) {
+                keys.add(TitleIndex.key(tier, id));
+            }
+        });
+        return keys.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static int tier(String value, String term) {
+        if (value == null || !value.contains(term)) {
+            return Integer.MAX_VALUE;
+        }
+        return value.equals(term) ? TitleIndex.EXACT : value.startsWith(term) ? TitleIndex.PREFIX : TitleIndex.SUBSTRING;
+    }
+
+    private static long[] pageThrough(TitleIndex index, String term, int creatorId, int size) {
+        long[] all = new long[0];
+        long after = -1;
+        while (true) {
+            long[] page = index.search(term, creatorId, after, size);
+            all = concat(all, page);
+            if (page.length < size) {
+                return all;
+            }
+            after = page[page.length - 1];
+        }
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private record Entry(String title, String otherTitle, int owner) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.kihomura.screenvault.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TitleNormalizerTest {
+
+    @Test
+    void keepsFoldedLettersOfAsciiTitles() {
+        assertEquals("theamazingspiderman", TitleNormalizer.normalize("The Amazing Spider-Man"));
+        assertEquals("already", TitleNormalizer.normalize("already"));
+        assertNull(TitleNormalizer.normalize(null));
+    }
+
+    @Test
+    void keepsDigits() {
+        assertEquals("1917", TitleNormalizer.normalize("1917"));
+        assertEquals("300", TitleNormalizer.normalize("300"));
+        assertEquals("apollo13", TitleNormalizer.normalize("Apollo 13"));
+        assertEquals("2001aspaceodyssey", TitleNormalizer.normalize("2001: A Space Odyssey"));
+        assertEquals("blade2049", TitleNormalizer.normalize("Blade ２０４９"));
+    }
+
+    @Test
+    void foldsAccentsAndCompatibilityForms() {
+        assertEquals("amelie", TitleNormalizer.normalize("Amélie"));
+        assertEquals("strasse", TitleNormalizer.normalize("Straße"));
+        assertEquals("ガンダム", TitleNormalizer.normalize("ｶﾞﾝﾀﾞﾑ"));
+        assertEquals("東京物語", TitleNormalizer.normalize("東京 物語"));
+    }
+}